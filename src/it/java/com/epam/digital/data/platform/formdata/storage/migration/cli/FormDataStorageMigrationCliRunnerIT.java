@@ -19,6 +19,9 @@ package com.epam.digital.data.platform.formdata.storage.migration.cli;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.epam.digital.data.platform.formdata.storage.migration.cli.config.CephFormDataStorageConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataReader;
 import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
 import com.epam.digital.data.platform.storage.form.repository.FormDataRepository;
 import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
@@ -29,6 +32,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -125,5 +129,19 @@ class FormDataStorageMigrationCliRunnerIT {
             }
           }).build();
     }
+
+    @Bean
+    public FormDataReader cephFormDataReader(FormDataStorageService cephFormDataStorageService) {
+      return cephFormDataStorageService::getFormData;
+    }
+
+    @Bean
+    public FormDataKeySource cephFormDataKeySource(
+        FormDataStorageService cephFormDataStorageService) {
+      return (pageSize, pageConsumer) -> pageConsumer.accept(
+          cephFormDataStorageService.keys().stream()
+              .map(key -> SourceObjectDto.builder().key(key).build())
+              .collect(Collectors.toList()));
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.config.RedisStorageConfiguration;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.factory.StorageServiceFactory;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import redis.embedded.RedisServer;
+
+/**
+ * Writes form data through the storage library and through the pipelined batch writes against
+ * embedded redis, and compares everything stored for the keys: the data itself, keyspace and
+ * index entries and expiration.
+ */
+class RedisFormDataBatchOperationsIT {
+
+  private static final FormDataKeyProvider KEY_PROVIDER = new FormDataKeyProviderImpl();
+  private static final String KEYSPACE = "bpm-form-submissions";
+
+  private RedisServer redisServer;
+  private LettuceConnectionFactory connectionFactory;
+  private FormDataStorageService redisStorage;
+  private RedisFormDataBatchOperations batchOperations;
+
+  @BeforeEach
+  void init() throws IOException {
+    var port = freePort();
+    redisServer = new RedisServer(port);
+    redisServer.start();
+    connectionFactory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration("localhost", port));
+    connectionFactory.afterPropertiesSet();
+    var storageServiceFactory = new StorageServiceFactory(new ObjectMapper());
+    var config = new RedisStorageConfiguration();
+    redisStorage = storageServiceFactory.formDataStorageService(connectionFactory, config);
+    var args = ArgsDto.builder().redisBatchSize(2).redisKeyspace(KEYSPACE).build();
+    batchOperations = new RedisFormDataBatchOperations(connectionFactory, redisStorage,
+        factory -> storageServiceFactory.formDataStorageService(factory, config),
+        new StorageThrottle(args,
+            new MigrationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))), args);
+  }
+
+  @AfterEach
+  void destroy() {
+    batchOperations.preDestroy();
+    connectionFactory.destroy();
+    redisServer.stop();
+  }
+
+  @Test
+  void shouldStoreNewKeysLikeStorageService() {
+    var writtenKey = KEY_PROVIDER.generateKey("piid1", "taskid");
+    var batchedKey = KEY_PROVIDER.generateKey("piid2", "taskid");
+    var formData = formData("John");
+
+    redisStorage.putFormData(writtenKey, formData);
+    var failures = batchOperations.putAll(Map.of(batchedKey, formData));
+
+    assertThat(failures).isEmpty();
+    assertThat(stored(batchedKey)).isNotEmpty().isEqualTo(stored(writtenKey));
+    assertThat(redisStorage.getFormData(batchedKey)).contains(formData);
+    assertThat(batchOperations.findExisting(List.of(batchedKey)))
+        .containsExactly(batchedKey);
+  }
+
+  @Test
+  void shouldOverwriteExistingKeysLikeStorageService() {
+    var writtenKey = KEY_PROVIDER.generateKey("piid1", "taskid");
+    var batchedKey = KEY_PROVIDER.generateKey("piid2", "taskid");
+    redisStorage.putFormData(writtenKey, formData("John"));
+    redisStorage.putFormData(batchedKey, formData("John"));
+    var formData = formData("Bob");
+
+    redisStorage.putFormData(writtenKey, formData);
+    var failures = batchOperations.putAll(Map.of(batchedKey, formData));
+
+    assertThat(failures).isEmpty();
+    assertThat(stored(batchedKey)).isNotEmpty().isEqualTo(stored(writtenKey));
+    assertThat(redisStorage.getFormData(batchedKey)).contains(formData);
+  }
+
+  /**
+   * Everything stored in redis that refers to the key, with the key replaced by a placeholder:
+   * type, content and whether it expires of every redis key whose name or content contains it.
+   * Sets are reduced to their members that refer to the key, e.g. keyspace or index entries.
+   */
+  private Map<String, String> stored(String key) {
+    var stored = new TreeMap<String, String>();
+    try (var connection = connectionFactory.getConnection()) {
+      for (var name : connection.keyCommands().keys(bytes("*"))) {
+        var type = connection.keyCommands().type(name);
+        var content = content(connection, name, type, key);
+        var redisKey = string(name);
+        if (redisKey.contains(key) || content.contains(key)) {
+          var ttl = connection.keyCommands().ttl(name);
+          stored.put(redisKey.replace(key, "{key}"), type + " " + content.replace(key, "{key}")
+              + (ttl != null && ttl > 0 ? " expiring" : ""));
+        }
+      }
+    }
+    return stored;
+  }
+
+  private static String content(RedisConnection connection, byte[] name, DataType type,
+      String key) {
+    if (type == DataType.STRING) {
+      return string(connection.stringCommands().get(name));
+    }
+    if (type == DataType.HASH) {
+      var fields = new TreeMap<String, String>();
+      connection.hashCommands().hGetAll(name)
+          .forEach((field, value) -> fields.put(string(field), string(value)));
+      return fields.toString();
+    }
+    if (type == DataType.SET) {
+      var members = new TreeSet<String>();
+      connection.setCommands().sMembers(name).stream()
+          .map(RedisFormDataBatchOperationsIT::string)
+          .filter(member -> member.contains(key))
+          .forEach(members::add);
+      return members.toString();
+    }
+    return "";
+  }
+
+  private static FormDataDto formData(String name) {
+    return FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", name)))
+        .signature("signature")
+        .build();
+  }
+
+  private static int freePort() throws IOException {
+    try (var socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] value) {
+    return value == null ? "" : new String(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli;
+
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of the JSON round-trip every migrated {@link FormDataDto} goes through.
+ * Payload size is the size of the signature, which dominates large forms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormDataDtoSerializationBenchmark {
+
+  @Param({"1024", "65536", "1048576"})
+  private int signatureSize;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private FormDataDto formData;
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws IOException {
+    var signature = new byte[signatureSize * 3 / 4];
+    ThreadLocalRandom.current().nextBytes(signature);
+    var data = new LinkedHashMap<String, Object>();
+    for (int i = 0; i < 20; i++) {
+      data.put("field" + i, Map.of("value", "value" + i, "index", i));
+    }
+    formData = FormDataDto.builder()
+        .data(data)
+        .signature(Base64.getEncoder().encodeToString(signature))
+        .build();
+    json = objectMapper.writeValueAsBytes(formData);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return objectMapper.writeValueAsBytes(formData);
+  }
+
+  @Benchmark
+  public FormDataDto deserialize() throws IOException {
+    return objectMapper.readValue(json, FormDataDto.class);
+  }
+
+  @Benchmark
+  public byte[] roundTrip() throws IOException {
+    return objectMapper.writeValueAsBytes(objectMapper.readValue(json, FormDataDto.class));
+  }
+}
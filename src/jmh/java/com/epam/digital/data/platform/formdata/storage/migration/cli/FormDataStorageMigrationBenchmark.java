@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures keys per second migrated by {@link FormDataStorageMigrationCliRunner} between two
+ * in-memory storages with an emulated per-call latency. Source data is not deleted and the target
+ * storage is cleared before every invocation, so every invocation migrates all keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class FormDataStorageMigrationBenchmark {
+
+  private static final int KEYS = 1000;
+
+  @Param({"0", "500"})
+  private long latencyMicros;
+  @Param({"1", "16"})
+  private int concurrency;
+  @Param({"0", "4"})
+  private int writeConcurrency;
+
+  private InMemoryFormDataRepository targetRepository;
+  private FormDataStorageMigrationCliRunner runner;
+
+  @Setup
+  public void setUp() {
+    FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
+    var sourceRepository = new InMemoryFormDataRepository(latencyMicros);
+    for (int i = 0; i < KEYS; i++) {
+      var key = keyProvider.generateKey("Activity_" + i, UUID.randomUUID().toString());
+      sourceRepository.getStorage().put(key, FormDataDto.builder()
+          .data(new LinkedHashMap<>(Map.of("name", "John", "index", i)))
+          .build());
+    }
+    targetRepository = new InMemoryFormDataRepository(latencyMicros);
+    var args = ArgsDto.builder()
+        .concurrency(concurrency)
+        .writeConcurrency(writeConcurrency)
+        .build();
+    var sourceStorage = storageService(keyProvider, sourceRepository);
+    var metrics = new MigrationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    runner = new FormDataStorageMigrationCliRunner(args,
+        new FormDataKeyValidator(ValidationConfig.PATTERNS),
+        sourceStorage,
+        storageService(keyProvider, targetRepository),
+        null, sourceStorage::getFormData, null, metrics, null, new StorageThrottle(args, metrics),
+        null);
+  }
+
+  @Setup(Level.Invocation)
+  public void clearTarget() {
+    targetRepository.getStorage().clear();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(KEYS)
+  public void migrate() {
+    runner.run();
+  }
+
+  private FormDataStorageService storageService(FormDataKeyProvider keyProvider,
+      InMemoryFormDataRepository repository) {
+    return FormDataStorageService.builder()
+        .keyProvider(keyProvider)
+        .repository(repository)
+        .build();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Measures the time from a cold JVM to a started application context, as every migration job
+ * pays it once. Every fork starts a single application with {@code --startup-only}, so no
+ * storage is contacted. Compare runs with {@code -Pbenchmark} and {@code -Pbenchmark,fast-start}
+ * to measure the component index.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class FormDataStorageMigrationStartupBenchmark {
+
+  @Benchmark
+  public void startup() {
+    SpringApplication.run(FormDataStorageMigrationCliApplication.class,
+        "--startup-only=true",
+        "--delete-after-migration=false",
+        "--delete-invalid-data=false",
+        "--s3.config.client.protocol=http",
+        "--s3.config.options.pathStyleAccess=true",
+        "--storage.backend.ceph.http-endpoint=http://localhost:8100",
+        "--storage.backend.ceph.access-key=key",
+        "--storage.backend.ceph.secret-key=key",
+        "--storage.backend.ceph.bucket=bucket",
+        "--storage.backend.redis.password=",
+        "--storage.backend.redis.sentinel.master=mymaster",
+        "--storage.backend.redis.sentinel.nodes=127.0.0.1:26379").close();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli;
+
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.repository.FormDataRepository;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stand-in for a form data storage that emulates a network round-trip by parking the
+ * calling thread for the configured latency on every call.
+ */
+public class InMemoryFormDataRepository implements FormDataRepository {
+
+  private final Map<String, FormDataDto> storage = new ConcurrentHashMap<>();
+  private final long latencyNanos;
+
+  public InMemoryFormDataRepository(long latencyMicros) {
+    this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+  }
+
+  public Map<String, FormDataDto> getStorage() {
+    return storage;
+  }
+
+  @Override
+  public Optional<FormDataDto> getFormData(String key) {
+    roundTrip();
+    return Optional.ofNullable(storage.get(key));
+  }
+
+  @Override
+  public void putFormData(String key, FormDataDto formDataDto) {
+    roundTrip();
+    storage.put(key, formDataDto);
+  }
+
+  @Override
+  public Set<String> getKeys(String prefix) {
+    roundTrip();
+    return storage.keySet().stream()
+        .filter(key -> key.startsWith(prefix))
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public void delete(Set<String> keys) {
+    roundTrip();
+    storage.keySet().removeAll(keys);
+  }
+
+  @Override
+  public Set<String> keys() {
+    roundTrip();
+    return Set.copyOf(storage.keySet());
+  }
+
+  private void roundTrip() {
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.util.Date;
+
+/**
+ * In-process S3 client over {@link SyntheticCephStorage} supporting the calls the migration makes
+ * directly: paged ListObjectsV2 with prefix, delimiter and start-after, GetObject and HEAD. All
+ * other calls fail with {@link UnsupportedOperationException}.
+ */
+public class FakeCephAmazonS3 extends AbstractAmazonS3 {
+
+  private static final int NOT_FOUND = 404;
+  private static final int MAX_KEYS = 1000;
+
+  private final SyntheticCephStorage storage;
+  private final ObjectMapper objectMapper;
+  private final Date lastModified = new Date();
+
+  public FakeCephAmazonS3(SyntheticCephStorage storage, ObjectMapper objectMapper) {
+    this.storage = storage;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+    storage.getFaultInjector().roundTrip("list");
+    var prefix = request.getPrefix() == null ? "" : request.getPrefix();
+    var delimiter = request.getDelimiter();
+    var maxKeys = request.getMaxKeys() == null ? MAX_KEYS : Math.min(request.getMaxKeys(),
+        MAX_KEYS);
+    var after = request.getContinuationToken() != null ? request.getContinuationToken()
+        : request.getStartAfter();
+    if (after == null || after.compareTo(prefix) < 0) {
+      after = prefix;
+    }
+    var result = new ListObjectsV2Result();
+    result.setBucketName(request.getBucketName());
+    result.setPrefix(request.getPrefix());
+    result.setDelimiter(delimiter);
+    var returned = 0;
+    String last = null;
+    var iterator = storage.getKeys().tailSet(after, false).iterator();
+    while (iterator.hasNext()) {
+      var key = iterator.next();
+      if (!key.startsWith(prefix)) {
+        break;
+      }
+      if (returned == maxKeys) {
+        result.setTruncated(true);
+        result.setNextContinuationToken(last);
+        break;
+      }
+      var delimiterIndex = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+      if (delimiterIndex >= 0) {
+        var commonPrefix = key.substring(0, delimiterIndex + delimiter.length());
+        result.getCommonPrefixes().add(commonPrefix);
+        last = commonPrefix + Character.MAX_VALUE;
+        iterator = storage.getKeys().tailSet(last, false).iterator();
+      } else {
+        result.getObjectSummaries().add(summary(request.getBucketName(), key));
+        last = key;
+      }
+      returned++;
+    }
+    result.setKeyCount(returned);
+    return result;
+  }
+
+  @Override
+  public S3Object getObject(String bucketName, String key) {
+    storage.getFaultInjector().roundTrip("get");
+    if (!storage.getKeys().contains(key)) {
+      var exception = new AmazonS3Exception("The specified key does not exist");
+      exception.setStatusCode(NOT_FOUND);
+      throw exception;
+    }
+    byte[] content;
+    try {
+      content = objectMapper.writeValueAsBytes(storage.payload(key));
+    } catch (JsonProcessingException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(content.length);
+    metadata.setLastModified(lastModified);
+    var object = new S3Object();
+    object.setBucketName(bucketName);
+    object.setKey(key);
+    object.setObjectMetadata(metadata);
+    object.setObjectContent(new ByteArrayInputStream(content));
+    return object;
+  }
+
+  @Override
+  public boolean doesObjectExist(String bucketName, String objectName) {
+    storage.getFaultInjector().roundTrip("head");
+    return storage.getKeys().contains(objectName);
+  }
+
+  @Override
+  public void shutdown() {
+    // nothing to release
+  }
+
+  private S3ObjectSummary summary(String bucketName, String key) {
+    var summary = new S3ObjectSummary();
+    summary.setBucketName(bucketName);
+    summary.setKey(key);
+    summary.setSize(storage.size(key));
+    summary.setLastModified(lastModified);
+    return summary;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Wraps a redis connection factory so that every command sent to redis goes through a
+ * {@link FaultInjector}. Pipelined commands are sent in one round-trip when the pipeline is
+ * closed, so only closing the pipeline is delayed for them, and an injected failure of the
+ * pipeline is raised after its commands were executed, like a lost response.
+ */
+public final class FaultInjectingRedisConnectionFactory {
+
+  private static final Set<String> LOCAL_METHODS = Set.of("close", "isClosed", "openPipeline",
+      "isPipelined", "isQueueing", "getNativeConnection", "getSentinelConnection", "hashCode",
+      "equals", "toString");
+
+  private FaultInjectingRedisConnectionFactory() {
+  }
+
+  public static RedisConnectionFactory wrap(RedisConnectionFactory factory,
+      FaultInjector faultInjector) {
+    return (RedisConnectionFactory) Proxy.newProxyInstance(
+        FaultInjectingRedisConnectionFactory.class.getClassLoader(),
+        new Class<?>[]{RedisConnectionFactory.class, DisposableBean.class},
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == DisposableBean.class) {
+            if (factory instanceof DisposableBean) {
+              ((DisposableBean) factory).destroy();
+            }
+            return null;
+          }
+          var result = invoke(factory, method, args);
+          if (result instanceof RedisConnection && "getConnection".equals(method.getName())) {
+            return connection((RedisConnection) result, faultInjector);
+          }
+          return result;
+        });
+  }
+
+  private static RedisConnection connection(RedisConnection connection,
+      FaultInjector faultInjector) {
+    return (RedisConnection) Proxy.newProxyInstance(
+        FaultInjectingRedisConnectionFactory.class.getClassLoader(),
+        new Class<?>[]{RedisConnection.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            if (name.endsWith("Commands") && method.getParameterCount() == 0
+                && method.getReturnType().isInstance(proxy)) {
+              return proxy;
+            }
+            if ("closePipeline".equals(name)) {
+              var results = FaultInjectingRedisConnectionFactory.invoke(connection, method, args);
+              faultInjector.roundTrip(name);
+              return results;
+            }
+            if (!LOCAL_METHODS.contains(name) && !connection.isPipelined()) {
+              faultInjector.roundTrip(name);
+            }
+            return FaultInjectingRedisConnectionFactory.invoke(connection, method, args);
+          }
+        });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException exception) {
+      throw exception.getCause();
+    }
+  }
+}
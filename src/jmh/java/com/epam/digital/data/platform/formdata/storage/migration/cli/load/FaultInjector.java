@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Emulates a remote storage: every call parks the calling thread for the configured round-trip
+ * latency and fails with the configured probability.
+ */
+public class FaultInjector {
+
+  private final String name;
+  private final long latencyNanos;
+  private final double failureRate;
+  private final Function<String, RuntimeException> failureFactory;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  public FaultInjector(String name, long latencyMicros, double failureRate,
+      Function<String, RuntimeException> failureFactory) {
+    this.name = name;
+    this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    this.failureRate = failureRate;
+    this.failureFactory = failureFactory;
+  }
+
+  public void roundTrip(String operation) {
+    calls.increment();
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+    if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+      failures.increment();
+      throw failureFactory.apply("Injected " + name + " " + operation + " failure");
+    }
+  }
+
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  public void reset() {
+    calls.reset();
+    failures.reset();
+  }
+}
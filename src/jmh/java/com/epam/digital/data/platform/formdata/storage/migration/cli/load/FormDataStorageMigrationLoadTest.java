@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import com.amazonaws.SdkClientException;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import redis.embedded.RedisCluster;
+
+/**
+ * Offline load test of the ceph to redis migration. Synthetic keys in the formats of the form
+ * data key provider are migrated from an in-process ceph stand-in to embedded redis, both with
+ * injected per-call latency and failure rate, once for every concurrency setting. Keys per
+ * second, p99 per-key latency and peak heap usage of every run are printed as a table. The peak
+ * heap includes the key set of the ceph stand-in, about 150 bytes per key.
+ *
+ * <p>Options of the load test, all other {@code --name=value} arguments are passed to the
+ * migration:
+ * <ul>
+ *   <li>{@code --keys} - number of synthetic keys, default is {@code 100000}</li>
+ *   <li>{@code --concurrency-levels} - comma-separated {@code --concurrency} values, default is
+ *   {@code 1,4,16}</li>
+ *   <li>{@code --payload-bytes} - size of the filler of every payload, default is
+ *   {@code 1024}</li>
+ *   <li>{@code --ceph-latency-micros}, {@code --redis-latency-micros} - latency of every call,
+ *   defaults are {@code 2000} and {@code 300}</li>
+ *   <li>{@code --ceph-failure-rate}, {@code --redis-failure-rate} - probability of a failed
+ *   call, default is {@code 0.001}</li>
+ *   <li>{@code --sentinel-port} - port of the embedded redis sentinel, default is
+ *   {@code 26380}</li>
+ * </ul>
+ */
+public final class FormDataStorageMigrationLoadTest {
+
+  private static final String MASTER = "mymaster";
+  private static final long SEED = 42;
+  private static final List<String> OPTIONS = List.of("keys", "concurrency-levels",
+      "payload-bytes", "ceph-latency-micros", "redis-latency-micros", "ceph-failure-rate",
+      "redis-failure-rate", "sentinel-port");
+
+  private FormDataStorageMigrationLoadTest() {
+  }
+
+  /**
+   * Arguments may also come as a single whitespace-separated string, as passed by the
+   * {@code load-test} execution of the maven {@code benchmark} profile.
+   */
+  public static void main(String[] args) throws IOException {
+    var arguments = Arrays.stream(args)
+        .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+        .filter(arg -> !arg.isEmpty())
+        .toArray(String[]::new);
+    var options = new SimpleCommandLinePropertySource(arguments);
+    var keys = Integer.parseInt(option(options, "keys", "100000"));
+    var cephFaults = new FaultInjector("ceph",
+        Long.parseLong(option(options, "ceph-latency-micros", "2000")),
+        Double.parseDouble(option(options, "ceph-failure-rate", "0.001")),
+        SdkClientException::new);
+    var redisFaults = new FaultInjector("redis",
+        Long.parseLong(option(options, "redis-latency-micros", "300")),
+        Double.parseDouble(option(options, "redis-failure-rate", "0.001")),
+        RedisConnectionFailureException::new);
+    var storage = new SyntheticCephStorage(cephFaults,
+        Integer.parseInt(option(options, "payload-bytes", "1024")));
+    var sentinelPort = Integer.parseInt(option(options, "sentinel-port", "26380"));
+
+    System.out.printf("%12s %12s %12s %14s %10s %8s %18s%n", "concurrency", "keys/s",
+        "p99 key ms", "peak heap MB", "migrated", "failed", "injected failures");
+    for (var concurrency : option(options, "concurrency-levels", "1,4,16").split(",")) {
+      storage.generate(keys, SEED);
+      cephFaults.reset();
+      redisFaults.reset();
+      var migrationArgs = migrationArgs(options, concurrency.trim(), sentinelPort);
+      var redis = RedisCluster.builder()
+          .sentinelPorts(List.of(sentinelPort))
+          .sentinelCount(1)
+          .quorumSize(1)
+          .ephemeralServers()
+          .replicationGroup(MASTER, 1)
+          .build();
+      redis.start();
+      try {
+        var result = run(storage, redisFaults, migrationArgs);
+        System.out.printf("%12s %12.0f %12.2f %14d %10d %8d %18d%n", concurrency.trim(),
+            result.metrics.getCount(KeyStatus.MIGRATED) / result.seconds,
+            p99Millis(result.metrics),
+            result.peakHeapBytes / (1024 * 1024), result.metrics.getCount(KeyStatus.MIGRATED),
+            result.metrics.getCount(KeyStatus.FAILED),
+            cephFaults.getFailures() + redisFaults.getFailures());
+      } finally {
+        redis.stop();
+      }
+    }
+  }
+
+  private static Result run(SyntheticCephStorage storage, FaultInjector redisFaults,
+      String[] migrationArgs) {
+    var timing = new long[2];
+    ApplicationListener<ApplicationEvent> listener = event -> {
+      if (event instanceof ApplicationStartedEvent) {
+        System.gc();
+        resetPeakHeap();
+        timing[0] = System.nanoTime();
+      } else if (event instanceof ApplicationReadyEvent) {
+        timing[1] = System.nanoTime();
+      }
+    };
+    try (var context = new SpringApplicationBuilder(LoadTestConfiguration.class)
+        .web(WebApplicationType.NONE)
+        .initializers(applicationContext -> {
+          var beanFactory = applicationContext.getBeanFactory();
+          beanFactory.registerSingleton("syntheticCephStorage", storage);
+          beanFactory.registerSingleton("redisFaultInjector", redisFaults);
+        })
+        .listeners(listener)
+        .run(migrationArgs)) {
+      var result = new Result();
+      result.metrics = context.getBean(MigrationMetrics.class);
+      result.seconds = (timing[1] - timing[0]) / 1e9;
+      result.peakHeapBytes = peakHeap();
+      return result;
+    }
+  }
+
+  private static String[] migrationArgs(SimpleCommandLinePropertySource options,
+      String concurrency, int sentinelPort) throws IOException {
+    var args = new LinkedHashMap<String, String>();
+    args.put("delete-after-migration", "true");
+    args.put("delete-invalid-data", "false");
+    args.put("retry-attempts", "5");
+    args.put("dead-letter-file", Files.createTempFile("load-test-dead-letter", "").toString());
+    args.put("storage.backend.redis.password", "");
+    args.put("storage.backend.redis.sentinel.master", MASTER);
+    args.put("storage.backend.redis.sentinel.nodes", "127.0.0.1:" + sentinelPort);
+    args.put("spring.main.banner-mode", "off");
+    args.put("spring.main.allow-bean-definition-overriding", "true");
+    args.put("logging.level.root", "error");
+    Arrays.stream(options.getPropertyNames())
+        .filter(name -> !OPTIONS.contains(name))
+        .forEach(name -> args.put(name, options.getProperty(name)));
+    args.put("concurrency", concurrency);
+    return args.entrySet().stream()
+        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+        .toArray(String[]::new);
+  }
+
+  private static String option(SimpleCommandLinePropertySource options, String name,
+      String defaultValue) {
+    return options.containsProperty(name) ? options.getProperty(name) : defaultValue;
+  }
+
+  private static double p99Millis(MigrationMetrics metrics) {
+    return Arrays.stream(metrics.getKeyDuration().takeSnapshot().percentileValues())
+        .filter(percentile -> percentile.percentile() == 0.99)
+        .mapToDouble(percentile -> percentile.value(TimeUnit.MILLISECONDS))
+        .findFirst()
+        .orElse(Double.NaN);
+  }
+
+  private static void resetPeakHeap() {
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  private static long peakHeap() {
+    return heapPools().stream()
+        .mapToLong(pool -> pool.getPeakUsage().getUsed())
+        .sum();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .collect(Collectors.toList());
+  }
+
+  private static class Result {
+
+    private MigrationMetrics metrics;
+    private double seconds;
+    private long peakHeapBytes;
+  }
+}
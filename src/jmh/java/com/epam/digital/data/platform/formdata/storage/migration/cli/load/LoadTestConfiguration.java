@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.FormDataStorageMigrationCliApplication;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.CephFormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.CephRawFormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.ParallelCephFormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.CephTargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Application context of the load test: the production beans, with the ceph storage replaced by
+ * {@link SyntheticCephStorage} and the redis connection factory wrapped by
+ * {@link FaultInjectingRedisConnectionFactory}. The {@code syntheticCephStorage} and
+ * {@code redisFaultInjector} singletons are registered by the load test before the refresh.
+ */
+@Configuration
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = FormDataStorageMigrationCliApplication.class,
+    excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = {
+        ".*\\.FormDataStorageMigrationCliApplication", ".*\\.CephFormDataStorageConfig",
+        ".*\\.EmbeddedRedisConfig", ".*IT(\\$.*)?", ".*\\.load\\..*"}))
+public class LoadTestConfiguration {
+
+  static final String BUCKET = "bucket";
+
+  @Bean
+  public FormDataStorageService cephFormDataStorageService(SyntheticCephStorage storage) {
+    return FormDataStorageService.builder()
+        .keyProvider(new FormDataKeyProviderImpl())
+        .repository(storage)
+        .build();
+  }
+
+  @Bean
+  public AmazonS3 cephAmazonS3(SyntheticCephStorage storage, ObjectMapper objectMapper) {
+    return new FakeCephAmazonS3(storage, objectMapper);
+  }
+
+  @Bean
+  public FormDataKeySource cephFormDataKeySource(AmazonS3 cephAmazonS3, ArgsDto args) {
+    if (args.getListingConcurrency() > 1) {
+      return new ParallelCephFormDataKeySource(cephAmazonS3, BUCKET,
+          ValidationConfig.KEY_PREFIXES, args.getListingConcurrency());
+    }
+    return new CephFormDataKeySource(cephAmazonS3, BUCKET);
+  }
+
+  @Bean
+  public FormDataReader cephFormDataReader(ArgsDto args, AmazonS3 cephAmazonS3,
+      FormDataStorageService cephFormDataStorageService, ObjectMapper objectMapper) {
+    if (args.isRawRead()) {
+      return new CephRawFormDataReader(cephAmazonS3, BUCKET, objectMapper);
+    }
+    return cephFormDataStorageService::getFormData;
+  }
+
+  @Bean
+  public TargetBatchOperations cephBatchOperations(
+      FormDataStorageService cephFormDataStorageService, AmazonS3 cephAmazonS3,
+      StorageThrottle throttle, ArgsDto args) {
+    return new CephTargetBatchOperations(cephFormDataStorageService, cephAmazonS3, BUCKET,
+        throttle, args);
+  }
+
+  @Bean
+  public static BeanPostProcessor redisFaultInjection(FaultInjector redisFaultInjector) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof RedisConnectionFactory) {
+          return FaultInjectingRedisConnectionFactory.wrap((RedisConnectionFactory) bean,
+              redisFaultInjector);
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.load;
+
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.repository.FormDataRepository;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Ceph bucket stand-in holding synthetic form data keys in the formats of
+ * {@link FormDataKeyProviderImpl}. Only the sorted key set is kept in memory, payloads are
+ * generated from the key on every read, so millions of keys fit into a small heap.
+ */
+public class SyntheticCephStorage implements FormDataRepository {
+
+  private static final int PROCESS_DEFINITIONS = 20;
+
+  private final FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
+  private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+  private final FaultInjector faultInjector;
+  private final String filler;
+
+  public SyntheticCephStorage(FaultInjector faultInjector, int payloadBytes) {
+    this.faultInjector = faultInjector;
+    this.filler = "x".repeat(Math.max(payloadBytes, 0));
+  }
+
+  /**
+   * Replaces the bucket content with the given number of keys: 70% task form data, 15% start
+   * forms, 5% start messages, 7% system signatures and 3% batch system signatures.
+   */
+  public void generate(int count, long seed) {
+    keys.clear();
+    var random = new Random(seed);
+    while (keys.size() < count) {
+      var processInstanceId = new UUID(random.nextLong(), random.nextLong()).toString();
+      var processDefinition = "process_definition_" + random.nextInt(PROCESS_DEFINITIONS);
+      var type = random.nextInt(100);
+      if (type < 70) {
+        keys.add(keyProvider.generateKey("Activity_" + random.nextInt(10), processInstanceId));
+      } else if (type < 85) {
+        keys.add(keyProvider.generateStartFormKey(processDefinition, processInstanceId));
+      } else if (type < 90) {
+        keys.add(keyProvider.generateKeyForExternalSystem(processDefinition, processInstanceId));
+      } else if (type < 97) {
+        keys.add(keyProvider.generateSystemSignatureKey(processInstanceId, processInstanceId));
+      } else {
+        keys.add(keyProvider.generateBatchSystemSignatureKey(processInstanceId,
+            random.nextInt(100)));
+      }
+    }
+  }
+
+  public NavigableSet<String> getKeys() {
+    return keys;
+  }
+
+  public FaultInjector getFaultInjector() {
+    return faultInjector;
+  }
+
+  public FormDataDto payload(String key) {
+    return FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("key", key, "filler", filler)))
+        .build();
+  }
+
+  /**
+   * Approximate size of the JSON payload of the key.
+   */
+  public long size(String key) {
+    return key.length() + filler.length() + 32L;
+  }
+
+  @Override
+  public Optional<FormDataDto> getFormData(String key) {
+    faultInjector.roundTrip("get");
+    return keys.contains(key) ? Optional.of(payload(key)) : Optional.empty();
+  }
+
+  @Override
+  public void putFormData(String key, FormDataDto formDataDto) {
+    faultInjector.roundTrip("put");
+    keys.add(key);
+  }
+
+  @Override
+  public Set<String> getKeys(String prefix) {
+    faultInjector.roundTrip("list");
+    return keys.stream()
+        .filter(key -> key.startsWith(prefix))
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public void delete(Set<String> keysToDelete) {
+    faultInjector.roundTrip("delete");
+    keys.removeAll(keysToDelete);
+  }
+
+  @Override
+  public Set<String> keys() {
+    faultInjector.roundTrip("list");
+    return Set.copyOf(keys);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.validator;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link FormDataKeyValidator} with matching every key against every pattern, which is
+ * how keys were validated before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormDataKeyValidatorBenchmark {
+
+  private static final int KEYS = 1024;
+
+  private final FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
+
+  private List<Pattern> patterns;
+  private FormDataKeyValidator validator;
+  private String[] keys;
+
+  @Setup
+  public void setUp() {
+    patterns = ValidationConfig.PATTERNS;
+    validator = new FormDataKeyValidator(patterns);
+    keys = IntStream.range(0, KEYS)
+        .mapToObj(this::generateKey)
+        .collect(Collectors.toList())
+        .toArray(String[]::new);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(KEYS)
+  public void regexPatterns(Blackhole blackhole) {
+    for (var key : keys) {
+      blackhole.consume(patterns.stream().anyMatch(pattern -> pattern.matcher(key).matches()));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(KEYS)
+  public void formDataKeyValidator(Blackhole blackhole) {
+    for (var key : keys) {
+      blackhole.consume(validator.isValid(key));
+    }
+  }
+
+  private String generateKey(int index) {
+    var id = UUID.randomUUID().toString();
+    switch (index % 6) {
+      case 0:
+        return keyProvider.generateKey("Activity_" + index, id);
+      case 1:
+        return keyProvider.generateStartFormKey("process_" + index, id);
+      case 2:
+        return keyProvider.generateKeyForExternalSystem("process_" + index, id);
+      case 3:
+        return keyProvider.generateSystemSignatureKey(id, id);
+      case 4:
+        return keyProvider.generateBatchSystemSignatureKey(id, index);
+      default:
+        return "unknown/" + id;
+    }
+  }
+}
@@ -14,17 +14,63 @@
  * limitations under the License.
  */
 
+
 package com.epam.digital.data.platform.formdata.storage.migration.cli;
 
+import com.epam.digital.data.platform.formdata.storage.migration.cli.cleanup.SourceDataCleaner;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.StorageType;
 import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.executor.BoundedTaskExecutor;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.DeadLetterFile;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.FileMigrationJournal;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.MigrationJournal;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.KeyType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.ProgressReporter;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.plan.MigrationPlanner;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.policy.ConflictPolicy;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.DeltaWatermark;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeySelector;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeyShardFilter;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.tracking.KeyTracker;
 import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.verify.MigrationVerifier;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
 import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Component
@@ -33,61 +79,714 @@ public class FormDataStorageMigrationCliRunner implements CommandLineRunner {
 
   private static final String ENABLED = "Enabled";
   private static final String DISABLED = "Disabled";
+  private static final int DEFAULT_PAGE_SIZE = 1000;
 
   private final ArgsDto args;
   private final FormDataKeyValidator validator;
-  private final FormDataStorageService cephFormDataStorageService;
-  private final FormDataStorageService redisFormDataStorageService;
+  private final FormDataStorageService sourceFormDataStorageService;
+  private final FormDataStorageService targetFormDataStorageService;
+  private final FormDataKeySource sourceKeySource;
+  private final FormDataReader sourceFormDataReader;
+  private final TargetBatchOperations targetBatchOperations;
+  private final MigrationMetrics metrics;
+  private final MigrationPlanner migrationPlanner;
+  private final StorageThrottle throttle;
+  private final MigrationVerifier verifier;
 
   @Override
   public void run(String... args) {
-    log.info("Start forms data migration");
+    if (this.args.isStartupOnly()) {
+      log.info("Application started, exiting without migration");
+      return;
+    }
+    var direction = this.args.getDirection();
+    log.info("Start forms data migration from {} to {}", direction.getSource(),
+        direction.getTarget());
+    validateDirection();
+    var selector = KeySelector.of(this.args);
+    validateSelector(selector);
     log.info("{} deleting processed valid form data after migration from source",
         this.args.isDeleteAfterMigration() ? ENABLED : DISABLED);
     log.info("{} deleting invalid data from source",
         this.args.isDeleteInvalidData() ? ENABLED : DISABLED);
-    var keys = cephFormDataStorageService.keys();
-    var processed = migrate(keys);
-    delete(keys, processed);
+    log.info("{} reading raw form data from source",
+        this.args.isRawRead() ? ENABLED : DISABLED);
+    log.info("{} verifying migrated form data before deletion from source",
+        this.args.isVerify() ? ENABLED : DISABLED);
+    log.info("Conflict policy for keys present in target: {}", conflictPolicy());
+    log.info("Migration concurrency: {}", Math.max(this.args.getConcurrency(), 1));
+    if (this.args.getWriteConcurrency() > 0 && this.args.getRedisBatchSize() <= 0) {
+      log.info("Target writes pipelined on {} separate workers", this.args.getWriteConcurrency());
+    }
+    if (this.args.getLargePayloadBytes() > 0) {
+      log.info("Payloads of at least {} bytes written by up to {} workers at a time",
+          this.args.getLargePayloadBytes(), largePayloadConcurrency());
+    }
+    if (this.args.getMaxOpsPerSecond() > 0) {
+      log.info("Storage calls limited to {} per second", this.args.getMaxOpsPerSecond());
+    }
+    if (this.args.getMaxBytesPerSecond() > 0) {
+      log.info("Migrated data limited to {} bytes per second", this.args.getMaxBytesPerSecond());
+    }
+    if (this.args.getLatencyTargetMs() > 0) {
+      log.info("Storage concurrency adapted to p99 latency target of {} ms",
+          this.args.getLatencyTargetMs());
+    }
+    log.info("Failed storage calls retried up to {} times",
+        Math.max(this.args.getRetryAttempts(), 1) - 1);
+    if (this.args.getRedisBatchSize() > 0) {
+      log.info("Redis batch size: {}", this.args.getRedisBatchSize());
+    }
+    var shard = new KeyShardFilter(this.args.getShardIndex(),
+        Math.max(this.args.getShardCount(), 1));
+    if (shard.isSharded()) {
+      log.info("Migrating keys of shard {}", shard);
+    }
+    if (selector.isSelective()) {
+      log.info("Migrating selected keys only: {}", selector);
+    }
+    if (this.args.isDryRun()) {
+      log.info("Dry run, no data is migrated or deleted");
+      migrationPlanner.plan(shard, selector);
+      log.info("Forms data migration dry run finished");
+      return;
+    }
+    var failedKeys = readFailedKeys();
+    try (var progress = new ProgressReporter(metrics,
+        Duration.ofSeconds(this.args.getProgressInterval()));
+        var journal = openJournal();
+        var cleaner = new SourceDataCleaner(this::deleteFromSource,
+            this.args.getDeleteChunkSize(), this.args.getDeleteConcurrency(), deleted -> {
+          journal.recordAll(deleted, KeyStatus.DELETED);
+          metrics.count(KeyStatus.DELETED, deleted.size());
+        });
+        var deadLetter = openDeadLetter()) {
+      var context = new Context(cleaner, journal, shard, selector, deadLetter,
+          new Semaphore(largePayloadConcurrency()));
+      if (failedKeys != null) {
+        log.info("Retrying {} failed keys from the dead letter file", failedKeys.size());
+        migrateAll(track(failedKeys.stream(), context), progress, context);
+        cleaner.awaitCompletion();
+        deadLetter.complete();
+      } else if (StringUtils.hasText(this.args.getDeltaWatermarkFile())) {
+        var watermark = DeltaWatermark.open(Path.of(this.args.getDeltaWatermarkFile()));
+        migrateByPages(watermark, context);
+        cleaner.awaitCompletion();
+        saveWatermark(watermark, context);
+      } else if (this.args.getPageSize() > 0 || this.args.getListingConcurrency() > 1
+          || direction.getSource() == StorageType.REDIS || selector.isSelective()
+          || conflictPolicy() == ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER
+          || this.args.getMaxBytesPerSecond() > 0) {
+        migrateByPages(object -> true, context);
+        cleaner.awaitCompletion();
+      } else {
+        migrateAll(track(sourceFormDataStorageService.keys().stream(), context), progress,
+            context);
+        cleaner.awaitCompletion();
+      }
+    } finally {
+      exportMetrics();
+    }
     log.info("Forms data migration finished");
   }
 
-  private Set<String> migrate(Set<String> keys) {
-    return keys.stream()
-        .filter(validator::isValid)
-        .filter(this::isNotPresentInRedis)
-        .peek(key -> {
-          log.info("Migration for '{}' key started", key);
-            try {
-              var formData = cephFormDataStorageService.getFormData(key);
-              formData.ifPresentOrElse(
-                  data -> redisFormDataStorageService.putFormData(key, data),
-                  () -> log.warn("{} not found in storage", key));
-              log.info("Migration for '{}' key finished", key);
-            } catch (IllegalArgumentException exception) {
-              log.error("Migration for '{}' key failed because of invalid data", key, exception);
+  /**
+   * Only a ceph source lists modification time of its objects, which delta mode and the
+   * overwrite-if-source-newer policy depend on. A ceph target keeps no modification time of the
+   * migrated objects either. Delta mode lists modified objects only, skipping them as present in
+   * the target would never update them.
+   */
+  private void validateDirection() {
+    var direction = args.getDirection();
+    if (direction.getSource() != StorageType.CEPH
+        && StringUtils.hasText(args.getDeltaWatermarkFile())) {
+      throw new IllegalStateException("Delta mode requires a ceph source, direction: " + direction);
+    }
+    if (conflictPolicy() == ConflictPolicy.SKIP
+        && StringUtils.hasText(args.getDeltaWatermarkFile())) {
+      throw new IllegalStateException(
+          "Delta mode requires overwrite or overwrite-if-source-newer conflict policy");
+    }
+    if (conflictPolicy() == ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER
+        && (direction.getSource() != StorageType.CEPH
+        || direction.getTarget() != StorageType.REDIS)) {
+      throw new IllegalStateException(
+          "Conflict policy overwrite-if-source-newer requires ceph-to-redis direction");
+    }
+  }
+
+  /**
+   * The delta watermark advances over all listed objects, so a selective run would skip the
+   * objects it did not select in the following delta runs.
+   */
+  private void validateSelector(KeySelector selector) {
+    if (selector.isSelective() && StringUtils.hasText(args.getDeltaWatermarkFile())) {
+      throw new IllegalStateException("Delta mode does not support key selection");
+    }
+  }
+
+  /**
+   * The next delta run lists only objects modified after the saved mark, so the mark is not
+   * advanced while keys that failed or did not pass verification are kept in the source storage.
+   */
+  private void saveWatermark(DeltaWatermark watermark, Context context) {
+    var retained = context.retainedKeys.get();
+    if (retained > 0) {
+      log.warn("Delta watermark not advanced, {} keys of this run are kept in the source storage",
+          retained);
+      return;
+    }
+    watermark.save();
+  }
+
+  private void deleteFromSource(Set<String> keys) {
+    throttle.record(args.getDirection().getSource().getDelete(),
+        () -> sourceFormDataStorageService.delete(keys));
+  }
+
+  private void exportMetrics() {
+    if (StringUtils.hasText(args.getMetricsFile())) {
+      metrics.export(Path.of(args.getMetricsFile()));
+      log.info("Migration metrics exported to '{}'", args.getMetricsFile());
+    }
+  }
+
+  private MigrationJournal openJournal() {
+    if (!StringUtils.hasText(args.getJournalFile())) {
+      if (args.isResume()) {
+        throw new IllegalStateException("Resuming migration requires --journal-file");
+      }
+      return MigrationJournal.NONE;
+    }
+    return FileMigrationJournal.open(Path.of(args.getJournalFile()), args.isResume(),
+        args.getJournalSyncInterval());
+  }
+
+  private Set<String> readFailedKeys() {
+    if (!args.isRetryFailed()) {
+      return null;
+    }
+    if (!StringUtils.hasText(args.getDeadLetterFile())) {
+      throw new IllegalStateException("Retrying failed keys requires --dead-letter-file");
+    }
+    return DeadLetterFile.read(Path.of(args.getDeadLetterFile()));
+  }
+
+  /**
+   * Without a dead letter file a key that still fails after all retries aborts the migration.
+   * Failed keys are appended to the file, only a completed retry of its keys rewrites it.
+   */
+  private DeadLetterFile openDeadLetter() {
+    if (!StringUtils.hasText(args.getDeadLetterFile())) {
+      return null;
+    }
+    var path = Path.of(args.getDeadLetterFile());
+    return args.isRetryFailed() ? DeadLetterFile.openReplacement(path) : DeadLetterFile.open(path);
+  }
+
+  private void migrateAll(KeyTracker keys, ProgressReporter progress, Context context) {
+    progress.setTotalKeys(keys.size());
+    migrate(keys, Map.of(), context);
+    recordSourceModified(context);
+    delete(keys, context);
+  }
+
+  /**
+   * Streams the source listing of the selected keys and migrates objects accepted by the filter
+   * page by page.
+   */
+  private void migrateByPages(Predicate<SourceObjectDto> filter, Context context) {
+    var pageSize = args.getPageSize() > 0 ? args.getPageSize() : DEFAULT_PAGE_SIZE;
+    log.info("Streaming source keys in pages of {} keys", pageSize);
+    var pages = new AtomicLong();
+    var total = new AtomicLong();
+    context.selector.forEachPage(sourceKeySource, pageSize, page -> {
+      var sourceObjects = page.stream()
+          .filter(filter)
+          .filter(object -> context.shard.test(object.getKey()))
+          .collect(Collectors.toMap(SourceObjectDto::getKey, Function.identity(),
+              (first, second) -> second));
+      var keys = new KeyTracker(sourceObjects.keySet().stream());
+      migrate(keys, sourceObjects, context);
+      recordSourceModified(context);
+      delete(keys, context);
+      context.cleaner.flush();
+      log.info("Page {} with {} keys processed, {} keys processed in total",
+          pages.incrementAndGet(), keys.size(), total.addAndGet(keys.size()));
+    });
+  }
+
+  /**
+   * Tracks the listed keys of the shard accepted by the key selector.
+   */
+  private KeyTracker track(Stream<String> keys, Context context) {
+    return new KeyTracker(keys
+        .filter(context.shard)
+        .filter(context.selector));
+  }
+
+  /**
+   * Migrates the keys and marks all keys that reached the migration as processed. The key type
+   * found by the validation is passed on with the key.
+   *
+   * @param sourceObjects listing of the source objects with their size and modification time, if
+   * known
+   */
+  private void migrate(KeyTracker keys, Map<String, SourceObjectDto> sourceObjects,
+      Context context) {
+    var pendingKeys = keys.stream()
+        .filter(key -> !isCompletedByPreviousRun(key, keys, context));
+    if (args.getRedisBatchSize() > 0) {
+      var validKeys = pendingKeys.flatMap(key -> Optional.ofNullable(validate(key, context))
+          .map(keyType -> Map.entry(key, keyType))
+          .stream());
+      execute(batches(validKeys, args.getRedisBatchSize()), batch -> {
+        var keyTypes = new LinkedHashMap<String, KeyType>();
+        batch.forEach(entry -> keyTypes.put(entry.getKey(), entry.getValue()));
+        var migrated = migrateBatch(keyTypes, sourceObjects, keys, context);
+        if (args.isDeleteAfterMigration()) {
+          context.cleaner.addAll(migrated);
+        }
+      });
+    } else {
+      try (var writer = openWriteStage()) {
+        execute(pendingKeys, key -> {
+          var keyType = validate(key, context);
+          if (keyType == null) {
+            return;
+          }
+          try {
+            if (!isConflicting(key, sourceObjects)) {
+              keys.mark(key);
+              migrateKey(key, keyType, sourceObjects.get(key), writer, context);
+            } else {
+              record(key, KeyStatus.SKIPPED, context);
             }
-        }).collect(Collectors.toSet());
+          } catch (RuntimeException exception) {
+            keys.mark(key);
+            deadLetter(key, exception, context);
+          }
+        });
+        if (writer != null) {
+          writer.awaitCompletion();
+        }
+      }
+    }
+  }
+
+  /**
+   * With {@code --write-concurrency} target writes run on their own bounded worker pool, so the
+   * migration workers go on reading the next keys from the source while earlier keys are being
+   * written, and the slower storage bounds the throughput instead of the sum of both latencies.
+   */
+  private BoundedTaskExecutor openWriteStage() {
+    if (args.getWriteConcurrency() <= 0) {
+      return null;
+    }
+    return new BoundedTaskExecutor(args.getWriteConcurrency(), "write-");
+  }
+
+  /**
+   * Restores the outcome of a key completed by an interrupted run without any storage calls.
+   * Migrated keys are still scheduled for deletion, as the previous run could have been stopped
+   * before deleting them.
+   */
+  private boolean isCompletedByPreviousRun(String key, KeyTracker processed, Context context) {
+    var status = context.journal.getStatus(key);
+    if (status == null || !status.isCompleted()) {
+      return false;
+    }
+    if (status == KeyStatus.MIGRATED || status == KeyStatus.DELETED) {
+      processed.mark(key);
+    }
+    if (status == KeyStatus.MIGRATED && args.isDeleteAfterMigration()) {
+      context.cleaner.add(key);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the type of a valid key, {@code null} if the key is invalid.
+   */
+  private KeyType validate(String key, Context context) {
+    var pattern = validator.findPattern(key);
+    if (pattern == null) {
+      record(key, KeyStatus.INVALID, context);
+      return null;
+    }
+    return KeyType.of(pattern);
+  }
+
+  private <T> void execute(Stream<T> tasks, Consumer<T> action) {
+    if (args.getConcurrency() <= 1) {
+      tasks.forEach(action);
+      return;
+    }
+    try (var executor = new BoundedTaskExecutor(args.getConcurrency(), "migration-")) {
+      tasks.forEach(task -> executor.submit(() -> action.accept(task)));
+      executor.awaitCompletion();
+    }
+  }
+
+  /**
+   * Migrates the batch and marks all keys that reached the migration as processed.
+   *
+   * @param keyTypes valid keys of the batch with their types
+   * @return keys that can be deleted from the source storage
+   */
+  private List<String> migrateBatch(Map<String, KeyType> keyTypes,
+      Map<String, SourceObjectDto> sourceObjects, KeyTracker processed, Context context) {
+    var startNanos = System.nanoTime();
+    var batch = List.copyOf(keyTypes.keySet());
+    Set<String> existing;
+    try {
+      existing = findConflicting(batch, sourceObjects);
+    } catch (RuntimeException exception) {
+      batch.forEach(processed::mark);
+      batch.forEach(key -> deadLetter(key, exception, context));
+      return List.of();
+    }
+    existing.forEach(key -> {
+      log.debug("Data for '{}' key found in target storage", key);
+      record(key, KeyStatus.SKIPPED, context);
+    });
+    var absent = batch.stream()
+        .filter(key -> !existing.contains(key))
+        .collect(Collectors.toList());
+    absent.forEach(processed::mark);
+    var keptInSource = new HashSet<String>();
+    var formData = new LinkedHashMap<String, FormDataDto>();
+    absent.forEach(key -> {
+      log.debug("Migration for '{}' key started", key);
+      try {
+        throttle.record(args.getDirection().getSource().getGet(),
+            () -> sourceFormDataReader.getFormData(key)).ifPresentOrElse(
+            data -> formData.put(key, data),
+            () -> {
+              log.warn("{} not found in storage", key);
+              record(key, KeyStatus.FAILED, context);
+            });
+      } catch (IllegalArgumentException exception) {
+        log.error("Migration for '{}' key failed because of invalid data", key, exception);
+        record(key, KeyStatus.FAILED, context);
+      } catch (RuntimeException exception) {
+        deadLetter(key, exception, context);
+        keptInSource.add(key);
+      }
+    });
+    var failures = putAll(formData, keyTypes, sourceObjects, context);
+    var mismatched = args.isVerify() ? verifier.verifyAll(written(formData, failures))
+        : Set.<String>of();
+    formData.keySet().forEach(key -> {
+      var failure = failures.get(key);
+      if (mismatched.contains(key)) {
+        keptInSource.add(key);
+        try {
+          discardMismatched(key, context);
+        } catch (RuntimeException exception) {
+          deadLetter(key, exception, context);
+        }
+      } else if (failure == null) {
+        record(key, KeyStatus.MIGRATED, context);
+        metrics.recordKeyDuration(startNanos);
+        rememberSourceModified(key, sourceObjects.get(key), context);
+      } else if (failure instanceof IllegalArgumentException) {
+        record(key, KeyStatus.FAILED, context);
+      } else {
+        deadLetter(key, failure, context);
+        keptInSource.add(key);
+      }
+    });
+    return absent.stream()
+        .filter(key -> !keptInSource.contains(key))
+        .collect(Collectors.toList());
   }
 
-  private void delete(Set<String> allKeys, Set<String> processedKeys) {
-    var invalidKeys = allKeys.stream().filter(k -> !processedKeys.contains(k))
-        .collect(Collectors.toSet());
+  /**
+   * Reads the key and writes it to the target, on the write stage if there is one. Keys that can
+   * be deleted from the source storage are scheduled for deletion once written.
+   */
+  private void migrateKey(String key, KeyType keyType, SourceObjectDto source,
+      BoundedTaskExecutor writer, Context context) {
+    log.debug("Migration for '{}' key started", key);
+    var startNanos = System.nanoTime();
+    Optional<FormDataDto> formData;
+    try {
+      formData = throttle.record(args.getDirection().getSource().getGet(),
+          () -> sourceFormDataReader.getFormData(key));
+    } catch (IllegalArgumentException exception) {
+      failInvalid(key, exception, context);
+      return;
+    }
+    if (formData.isEmpty()) {
+      log.warn("{} not found in storage", key);
+      record(key, KeyStatus.FAILED, context);
+      scheduleDeletion(key, context);
+      return;
+    }
+    if (writer == null) {
+      writeKey(key, keyType, formData.get(), source, startNanos, context);
+      return;
+    }
+    writer.submit(() -> {
+      try {
+        writeKey(key, keyType, formData.get(), source, startNanos, context);
+      } catch (RuntimeException exception) {
+        deadLetter(key, exception, context);
+      }
+    });
+  }
+
+  private void writeKey(String key, KeyType keyType, FormDataDto data, SourceObjectDto source,
+      long startNanos, Context context) {
+    try {
+      put(key, keyType, data, source, context);
+      if (args.isVerify() && !verifier.verify(key, data)) {
+        discardMismatched(key, context);
+        return;
+      }
+    } catch (IllegalArgumentException exception) {
+      failInvalid(key, exception, context);
+      return;
+    }
+    record(key, KeyStatus.MIGRATED, context);
+    metrics.recordKeyDuration(startNanos);
+    rememberSourceModified(key, source, context);
+    scheduleDeletion(key, context);
+    log.debug("Migration for '{}' key finished", key);
+  }
+
+  /**
+   * Removes the copy that failed the verification from the target, otherwise the key would be
+   * skipped as already present when it is processed again.
+   */
+  private void discardMismatched(String key, Context context) {
+    throttle.record(args.getDirection().getTarget().getDelete(),
+        () -> targetFormDataStorageService.delete(Set.of(key)));
+    record(key, KeyStatus.MISMATCHED, context);
+  }
+
+  /**
+   * Only the overwrite-if-source-newer policy compares the modification time of the migrated
+   * source objects, which is recorded in the target once all keys of the page are migrated.
+   */
+  private void rememberSourceModified(String key, SourceObjectDto source, Context context) {
+    var sourceModified = lastModified(source);
+    if (sourceModified != null && conflictPolicy() == ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER) {
+      context.sourceModified.put(key, sourceModified);
+    }
+  }
+
+  private void recordSourceModified(Context context) {
+    if (context.sourceModified.isEmpty()) {
+      return;
+    }
+    targetBatchOperations.recordSourceModified(Map.copyOf(context.sourceModified));
+    context.sourceModified.clear();
+  }
+
+  private void failInvalid(String key, IllegalArgumentException exception, Context context) {
+    log.error("Migration for '{}' key failed because of invalid data", key, exception);
+    record(key, KeyStatus.FAILED, context);
+    scheduleDeletion(key, context);
+  }
+
+  private void scheduleDeletion(String key, Context context) {
+    if (args.isDeleteAfterMigration()) {
+      context.cleaner.add(key);
+    }
+  }
+
+
+  /**
+   * Processed keys are handed over to the cleaner right after their migration, so only the
+   * remaining keys are scheduled for deletion here.
+   */
+  private void delete(KeyTracker keys, Context context) {
+    var invalidKeys = keys.unmarked().collect(Collectors.toList());
     log.info("Found {} invalid keys: {}", invalidKeys.size(), invalidKeys);
     if (args.isDeleteAfterMigration() && args.isDeleteInvalidData()) {
-      cephFormDataStorageService.delete(allKeys);
-      log.info("Migrated and found invalid data were deleted from the source storage");
+      context.cleaner.addAll(invalidKeys);
+      log.info(
+          "Migrated and found invalid data were scheduled for deletion from the source storage");
     } else if (args.isDeleteAfterMigration()) {
-      cephFormDataStorageService.delete(processedKeys);
-      log.info("Migrated forms were deleted from the source storage");
+      log.info("Migrated forms were scheduled for deletion from the source storage");
+    }
+  }
+
+  /**
+   * Writes payloads of at least {@code --large-payload-bytes} one by one, at most
+   * {@code --large-payload-concurrency} of them at a time across all workers, so large writes do
+   * not pile up on the target, while smaller payloads of the batch are written together.
+   */
+  private Map<String, RuntimeException> putAll(Map<String, FormDataDto> formData,
+      Map<String, KeyType> keyTypes, Map<String, SourceObjectDto> sourceObjects,
+      Context context) {
+    var small = new LinkedHashMap<String, FormDataDto>();
+    var large = new LinkedHashMap<String, FormDataDto>();
+    formData.forEach((key, data) -> (isLarge(recordSize(keyTypes.get(key), data,
+        sourceObjects.get(key))) ? large : small).put(key, data));
+    var failures = new HashMap<>(targetBatchOperations.putAll(small));
+    large.forEach((key, data) -> withLargePayloadPermit(context,
+        () -> failures.putAll(targetBatchOperations.putAll(Map.of(key, data)))));
+    return failures;
+  }
+
+  private void put(String key, KeyType keyType, FormDataDto data, SourceObjectDto source,
+      Context context) {
+    Runnable put = () -> throttle.record(args.getDirection().getTarget().getPut(),
+        () -> targetFormDataStorageService.putFormData(key, data));
+    if (isLarge(recordSize(keyType, data, source))) {
+      withLargePayloadPermit(context, put);
+    } else {
+      put.run();
+    }
+  }
+
+  /**
+   * Records the payload size in the size histogram of the key type and in the migrated bytes, and
+   * charges it to the bytes/s limit before the payload is written. The size comes from the source
+   * listing when known, otherwise it is estimated from the signature and certificate, which
+   * dominate large payloads.
+   */
+  private long recordSize(KeyType keyType, FormDataDto data, SourceObjectDto source) {
+    long size;
+    if (source != null && source.getSize() > 0) {
+      size = source.getSize();
+    } else {
+      size = length(data.getSignature()) + length(data.getX509());
     }
+    metrics.recordPayloadSize(keyType, size);
+    metrics.countBytes(size);
+    throttle.acquireBytes(size);
+    return size;
+  }
+
+  private int largePayloadConcurrency() {
+    return Math.max(args.getLargePayloadConcurrency(), 1);
   }
 
-  private boolean isNotPresentInRedis(String key) {
-    var isEmpty = redisFormDataStorageService.getFormData(key).isEmpty();
+  private boolean isLarge(long size) {
+    return args.getLargePayloadBytes() > 0 && size >= args.getLargePayloadBytes();
+  }
+
+  private static void withLargePayloadPermit(Context context, Runnable write) {
+    try {
+      context.largePayloadWrites.acquire();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to write a large payload",
+          exception);
+    }
+    try {
+      write.run();
+    } finally {
+      context.largePayloadWrites.release();
+    }
+  }
+
+  private static long length(String value) {
+    return value == null ? 0 : value.length();
+  }
+
+  private static Instant lastModified(SourceObjectDto source) {
+    return source == null ? null : source.getLastModified();
+  }
+
+  private static Map<String, FormDataDto> written(Map<String, FormDataDto> formData,
+      Map<String, RuntimeException> failures) {
+    var written = new LinkedHashMap<>(formData);
+    written.keySet().removeAll(failures.keySet());
+    return written;
+  }
+
+  /**
+   * Records a key that failed after all retries. The key is kept in the source storage.
+   */
+  private void deadLetter(String key, RuntimeException exception, Context context) {
+    if (context.deadLetter == null) {
+      throw exception;
+    }
+    log.error("Migration for '{}' key failed, added to the dead letter file", key, exception);
+    record(key, KeyStatus.FAILED, context);
+    context.deadLetter.add(key);
+    context.retainedKeys.incrementAndGet();
+  }
+
+  private void record(String key, KeyStatus status, Context context) {
+    context.journal.record(key, status);
+    metrics.count(status);
+    if (status == KeyStatus.MISMATCHED) {
+      context.retainedKeys.incrementAndGet();
+    }
+  }
+
+  /**
+   * Groups the keys into batches lazily, so the first batch is dispatched while later keys are
+   * still listed and validated, and only the batches in flight are held in memory.
+   */
+  private static <T> Stream<List<T>> batches(Stream<T> keys, int batchSize) {
+    var iterator = keys.iterator();
+    var batches = new Iterator<List<T>>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public List<T> next() {
+        var batch = new ArrayList<T>(batchSize);
+        while (batch.size() < batchSize && iterator.hasNext()) {
+          batch.add(iterator.next());
+        }
+        return batch;
+      }
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * Whether the key must not be migrated because of the data already present in the target.
+   */
+  private boolean isConflicting(String key, Map<String, SourceObjectDto> sourceObjects) {
+    if (conflictPolicy() == ConflictPolicy.SKIP) {
+      return !isNotPresentInTarget(key);
+    }
+    return !findConflicting(List.of(key), sourceObjects).isEmpty();
+  }
+
+  private Set<String> findConflicting(List<String> keys,
+      Map<String, SourceObjectDto> sourceObjects) {
+    return conflictPolicy().findConflicting(targetBatchOperations, keys, sourceObjects);
+  }
+
+  private ConflictPolicy conflictPolicy() {
+    return ConflictPolicy.of(args);
+  }
+
+  private boolean isNotPresentInTarget(String key) {
+    var isEmpty = throttle.record(args.getDirection().getTarget().getGet(),
+        () -> targetFormDataStorageService.getFormData(key)).isEmpty();
     if (!isEmpty) {
-      log.info("Data for '{}' key found in redis storage", key);
+      log.debug("Data for '{}' key found in target storage", key);
     }
     return isEmpty;
   }
+
+  /**
+   * Collaborators that live for a single migration run.
+   */
+  @RequiredArgsConstructor
+  private static class Context {
+
+    private final SourceDataCleaner cleaner;
+    private final MigrationJournal journal;
+    private final KeyShardFilter shard;
+    private final KeySelector selector;
+    private final DeadLetterFile deadLetter;
+    private final Semaphore largePayloadWrites;
+    private final Map<String, Instant> sourceModified = new ConcurrentHashMap<>();
+    private final AtomicLong retainedKeys = new AtomicLong();
+  }
 }
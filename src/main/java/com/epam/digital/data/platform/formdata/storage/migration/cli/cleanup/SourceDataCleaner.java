@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.cleanup;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.executor.BoundedTaskExecutor;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes keys from the source storage in chunks while the migration is still running. Keys are
+ * buffered until a full chunk is collected, then the chunk is deleted on a worker thread. A failed
+ * chunk is reported and does not prevent deletion of other chunks.
+ */
+@Slf4j
+public class SourceDataCleaner implements AutoCloseable {
+
+  /**
+   * Maximum number of keys accepted by a single S3 DeleteObjects request.
+   */
+  public static final int MAX_CHUNK_SIZE = 1000;
+
+  private final Consumer<Set<String>> deleteFunction;
+  private final int chunkSize;
+  private final BoundedTaskExecutor executor;
+  private final Consumer<Set<String>> deletedKeysListener;
+
+  private final AtomicLong deletedKeys = new AtomicLong();
+  private final AtomicLong deletedChunks = new AtomicLong();
+  private final AtomicLong failedKeys = new AtomicLong();
+  private final AtomicLong failedChunks = new AtomicLong();
+
+  private Set<String> buffer = new LinkedHashSet<>();
+
+  public SourceDataCleaner(Consumer<Set<String>> deleteFunction, int chunkSize,
+      int concurrency, Consumer<Set<String>> deletedKeysListener) {
+    this.deleteFunction = deleteFunction;
+    this.deletedKeysListener = deletedKeysListener;
+    this.chunkSize = chunkSize > 0 ? Math.min(chunkSize, MAX_CHUNK_SIZE) : MAX_CHUNK_SIZE;
+    this.executor = new BoundedTaskExecutor(Math.max(concurrency, 1), "delete-");
+  }
+
+  public void add(String key) {
+    Set<String> chunk = null;
+    synchronized (this) {
+      buffer.add(key);
+      if (buffer.size() >= chunkSize) {
+        chunk = buffer;
+        buffer = new LinkedHashSet<>();
+      }
+    }
+    if (chunk != null) {
+      submit(chunk);
+    }
+  }
+
+  public void addAll(Collection<String> keys) {
+    keys.forEach(this::add);
+  }
+
+  /**
+   * Schedules deletion of buffered keys even if they do not fill a whole chunk.
+   */
+  public void flush() {
+    Set<String> chunk;
+    synchronized (this) {
+      chunk = buffer;
+      buffer = new LinkedHashSet<>();
+    }
+    if (!chunk.isEmpty()) {
+      submit(chunk);
+    }
+  }
+
+  /**
+   * Deletes remaining keys and waits until all chunks are processed.
+   *
+   * @throws IllegalStateException if deletion of any chunk failed
+   */
+  public void awaitCompletion() {
+    flush();
+    executor.awaitCompletion();
+    log.info("{} keys were deleted from the source storage in {} chunks",
+        deletedKeys.get(), deletedChunks.get());
+    if (failedChunks.get() > 0) {
+      throw new IllegalStateException(String.format(
+          "Deletion of %d chunks with %d keys from the source storage failed",
+          failedChunks.get(), failedKeys.get()));
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  private void submit(Set<String> chunk) {
+    executor.submit(() -> {
+      try {
+        deleteFunction.accept(chunk);
+        deletedKeysListener.accept(chunk);
+        deletedKeys.addAndGet(chunk.size());
+        deletedChunks.incrementAndGet();
+      } catch (RuntimeException exception) {
+        failedKeys.addAndGet(chunk.size());
+        failedChunks.incrementAndGet();
+        log.error("Deletion of {} keys from the source storage failed: {}", chunk.size(), chunk,
+            exception);
+      }
+    });
+  }
+}
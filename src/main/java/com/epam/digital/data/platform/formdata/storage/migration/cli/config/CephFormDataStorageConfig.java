@@ -16,6 +16,16 @@
 
 package com.epam.digital.data.platform.formdata.storage.migration.cli.config;
 
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.CephFormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.CephRawFormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.ParallelCephFormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.CephTargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
 import com.epam.digital.data.platform.integration.ceph.config.S3ConfigProperties;
 import com.epam.digital.data.platform.integration.ceph.factory.CephS3Factory;
 import com.epam.digital.data.platform.storage.form.config.CephStorageConfiguration;
@@ -57,4 +67,42 @@ public class CephFormDataStorageConfig {
       StorageServiceFactory cephStorageServiceFactory, CephStorageConfiguration config) {
     return cephStorageServiceFactory.formDataStorageService(config);
   }
+
+  /**
+   * Client for the bucket listing and batch calls, built like the client of the storage service,
+   * so both use the same {@code s3.config} client settings.
+   */
+  @Bean
+  public AmazonS3 cephAmazonS3(CephS3Factory cephS3Factory, CephStorageConfiguration config) {
+    return cephS3Factory.createCephS3Client(config.getHttpEndpoint(), config.getAccessKey(),
+        config.getSecretKey());
+  }
+
+  @Bean
+  public FormDataKeySource cephFormDataKeySource(AmazonS3 cephAmazonS3,
+      CephStorageConfiguration config, ArgsDto args) {
+    if (args.getListingConcurrency() > 1) {
+      return new ParallelCephFormDataKeySource(cephAmazonS3, config.getBucket(),
+          ValidationConfig.KEY_PREFIXES, args.getListingConcurrency());
+    }
+    return new CephFormDataKeySource(cephAmazonS3, config.getBucket());
+  }
+
+  @Bean
+  public FormDataReader cephFormDataReader(ArgsDto args, AmazonS3 cephAmazonS3,
+      CephStorageConfiguration config, FormDataStorageService cephFormDataStorageService,
+      ObjectMapper objectMapper) {
+    if (args.isRawRead()) {
+      return new CephRawFormDataReader(cephAmazonS3, config.getBucket(), objectMapper);
+    }
+    return cephFormDataStorageService::getFormData;
+  }
+
+  @Bean
+  public TargetBatchOperations cephBatchOperations(
+      FormDataStorageService cephFormDataStorageService, AmazonS3 cephAmazonS3,
+      CephStorageConfiguration config, StorageThrottle throttle, ArgsDto args) {
+    return new CephTargetBatchOperations(cephFormDataStorageService, cephAmazonS3,
+        config.getBucket(), throttle, args);
+  }
 }
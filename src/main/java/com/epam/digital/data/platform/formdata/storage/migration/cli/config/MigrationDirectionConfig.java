@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.config;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.MigrationDirection;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.StorageType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataReader;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import java.util.Locale;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the beans of the source and target storage of the configured {@code --direction}. Beans
+ * of a storage are named after it, e.g. {@code cephFormDataStorageService}, the second redis of
+ * the redis-to-redis direction is named {@code targetRedis}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MigrationDirectionConfig {
+
+  private final ArgsDto args;
+  private final BeanFactory beanFactory;
+
+  @Bean
+  public FormDataStorageService sourceFormDataStorageService() {
+    return beanFactory.getBean(sourceName() + "FormDataStorageService",
+        FormDataStorageService.class);
+  }
+
+  @Bean
+  public FormDataStorageService targetFormDataStorageService() {
+    return beanFactory.getBean(targetName() + "FormDataStorageService",
+        FormDataStorageService.class);
+  }
+
+  @Bean
+  public FormDataKeySource sourceKeySource() {
+    return beanFactory.getBean(sourceName() + "FormDataKeySource", FormDataKeySource.class);
+  }
+
+  /**
+   * Raw reads are supported for a ceph source only, other sources are read with their storage
+   * service.
+   */
+  @Bean
+  public FormDataReader sourceFormDataReader() {
+    if (args.getDirection().getSource() == StorageType.CEPH) {
+      return beanFactory.getBean("cephFormDataReader", FormDataReader.class);
+    }
+    return sourceFormDataStorageService()::getFormData;
+  }
+
+  @Bean
+  public TargetBatchOperations targetBatchOperations() {
+    return beanFactory.getBean(targetName() + "BatchOperations", TargetBatchOperations.class);
+  }
+
+  private String sourceName() {
+    return name(args.getDirection().getSource());
+  }
+
+  private String targetName() {
+    if (args.getDirection() == MigrationDirection.REDIS_TO_REDIS) {
+      return "targetRedis";
+    }
+    return name(args.getDirection().getTarget());
+  }
+
+  private static String name(StorageType type) {
+    return type.name().toLowerCase(Locale.ROOT);
+  }
+}
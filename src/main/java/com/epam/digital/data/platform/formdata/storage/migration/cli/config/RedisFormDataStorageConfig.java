@@ -16,14 +16,24 @@
 
 package com.epam.digital.data.platform.formdata.storage.migration.cli.config;
 
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.redis.RedisFormDataBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.RedisFormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
 import com.epam.digital.data.platform.storage.form.config.RedisStorageConfiguration;
 import com.epam.digital.data.platform.storage.form.factory.StorageServiceFactory;
 import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class RedisFormDataStorageConfig {
@@ -41,15 +51,96 @@ public class RedisFormDataStorageConfig {
 
 
   @Bean
+  @Primary
   public RedisConnectionFactory redisConnectionFactory(StorageServiceFactory redisStorageServiceFactory,
+                                                       @Qualifier("redisStorageConfiguration")
                                                        RedisStorageConfiguration config) {
     return redisStorageServiceFactory.redisConnectionFactory(config);
   }
 
   @Bean
   public FormDataStorageService redisFormDataStorageService(StorageServiceFactory redisStorageServiceFactory,
+                                                            @Qualifier("redisStorageConfiguration")
                                                             RedisStorageConfiguration config,
                                                             RedisConnectionFactory redisConnectionFactory) {
     return redisStorageServiceFactory.formDataStorageService(redisConnectionFactory, config);
   }
+
+  @Bean
+  public TargetBatchOperations redisBatchOperations(RedisConnectionFactory redisConnectionFactory,
+      FormDataStorageService redisFormDataStorageService,
+      StorageServiceFactory redisStorageServiceFactory,
+      @Qualifier("redisStorageConfiguration") RedisStorageConfiguration config,
+      StorageThrottle throttle, ArgsDto args) {
+    return new RedisFormDataBatchOperations(redisConnectionFactory, redisFormDataStorageService,
+        factory -> redisStorageServiceFactory.formDataStorageService(factory, config), throttle,
+        args);
+  }
+
+  /**
+   * Keys outside of the form data key formats are filtered out by redis, unless they have to be
+   * seen: to migrate keys of additional patterns or to delete invalid keys.
+   */
+  @Bean
+  public FormDataKeySource redisFormDataKeySource(RedisConnectionFactory redisConnectionFactory,
+      ArgsDto args) {
+    var hasAdditionalPatterns = args.getAdditionalKeyPatterns().stream()
+        .anyMatch(StringUtils::hasText);
+    var matchPattern = hasAdditionalPatterns || args.isDeleteInvalidData() ? null
+        : RedisFormDataKeySource.matchPattern(ValidationConfig.KEY_FORMATS);
+    return new RedisFormDataKeySource(redisConnectionFactory, args.getRedisKeyspace(),
+        args.getRedisScanCount(), matchPattern);
+  }
+
+  /**
+   * Second redis instance form data is copied to by the redis-to-redis direction. Its beans are
+   * injected by qualifier, as the primary source connection factory would win over a parameter
+   * name.
+   */
+  @Configuration
+  @Conditional(RedisToRedisDirectionCondition.class)
+  public static class TargetRedisFormDataStorageConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "storage.backend.redis-target")
+    public RedisStorageConfiguration targetRedisStorageConfiguration() {
+      return new RedisStorageConfiguration();
+    }
+
+    @Bean
+    public RedisConnectionFactory targetRedisConnectionFactory(
+        StorageServiceFactory redisStorageServiceFactory,
+        @Qualifier("targetRedisStorageConfiguration")
+        RedisStorageConfiguration targetRedisStorageConfiguration) {
+      return redisStorageServiceFactory.redisConnectionFactory(targetRedisStorageConfiguration);
+    }
+
+    @Bean
+    public FormDataStorageService targetRedisFormDataStorageService(
+        StorageServiceFactory redisStorageServiceFactory,
+        @Qualifier("targetRedisStorageConfiguration")
+        RedisStorageConfiguration targetRedisStorageConfiguration,
+        @Qualifier("targetRedisConnectionFactory")
+        RedisConnectionFactory targetRedisConnectionFactory) {
+      return redisStorageServiceFactory.formDataStorageService(targetRedisConnectionFactory,
+          targetRedisStorageConfiguration);
+    }
+
+    @Bean
+    public TargetBatchOperations targetRedisBatchOperations(
+        @Qualifier("targetRedisConnectionFactory")
+        RedisConnectionFactory targetRedisConnectionFactory,
+        @Qualifier("targetRedisFormDataStorageService")
+        FormDataStorageService targetRedisFormDataStorageService,
+        StorageServiceFactory redisStorageServiceFactory,
+        @Qualifier("targetRedisStorageConfiguration")
+        RedisStorageConfiguration targetRedisStorageConfiguration,
+        StorageThrottle throttle, ArgsDto args) {
+      return new RedisFormDataBatchOperations(targetRedisConnectionFactory,
+          targetRedisFormDataStorageService,
+          factory -> redisStorageServiceFactory.formDataStorageService(factory,
+              targetRedisStorageConfiguration),
+          throttle, args);
+    }
+  }
 }
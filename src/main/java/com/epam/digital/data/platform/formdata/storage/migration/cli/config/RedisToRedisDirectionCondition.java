@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.config;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.MigrationDirection;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Matches the redis-to-redis {@code --direction}. The value is bound with the same lenient enum
+ * conversion as {@link com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto},
+ * so {@code REDIS_TO_REDIS} or {@code redis_to_redis} match as well.
+ */
+class RedisToRedisDirectionCondition implements Condition {
+
+  @Override
+  public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+    return Binder.get(context.getEnvironment())
+        .bind("direction", MigrationDirection.class)
+        .map(MigrationDirection.REDIS_TO_REDIS::equals)
+        .orElse(false);
+  }
+}
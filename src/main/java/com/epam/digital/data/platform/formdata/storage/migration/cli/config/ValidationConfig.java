@@ -30,19 +30,29 @@ import org.springframework.context.annotation.Configuration;
 @RequiredArgsConstructor
 public class ValidationConfig {
 
-  public static final List<Pattern> PATTERNS = List.of(
-      Pattern.compile(
-          String.format(FormDataKeyProviderImpl.TASK_FORM_DATA_KEY_FORMAT, "(.*)", "(.*)")),
-      Pattern.compile(
-          String.format(FormDataKeyProviderImpl.START_FORM_DATA_KEY_FORMAT, "(.*)", "(.*)")),
-      Pattern.compile(
-          String.format(FormDataKeyProviderImpl.START_FORM_DATA_VALUE_FORMAT, "(.*)", "(.*)")),
-      Pattern.compile(
-          String.format(FormDataKeyProviderImpl.SYSTEM_SIGNATURE_STORAGE_KEY, "(.*)", "(.*)")),
-      Pattern.compile(
-          String.format(FormDataKeyProviderImpl.BATCH_SYSTEM_SIGNATURE_STORAGE_KEY, "(.*)", "(.*)"))
+  /**
+   * Formats of the keys form data is stored under, with {@code %s} placeholders.
+   */
+  public static final List<String> KEY_FORMATS = List.of(
+      FormDataKeyProviderImpl.TASK_FORM_DATA_KEY_FORMAT,
+      FormDataKeyProviderImpl.START_FORM_DATA_KEY_FORMAT,
+      FormDataKeyProviderImpl.START_FORM_DATA_VALUE_FORMAT,
+      FormDataKeyProviderImpl.SYSTEM_SIGNATURE_STORAGE_KEY,
+      FormDataKeyProviderImpl.BATCH_SYSTEM_SIGNATURE_STORAGE_KEY
   );
 
+  /**
+   * Distinct prefixes of the key formats up to their first placeholder.
+   */
+  public static final List<String> KEY_PREFIXES = KEY_FORMATS.stream()
+      .map(format -> format.substring(0, format.indexOf("%s")))
+      .distinct()
+      .collect(Collectors.toUnmodifiableList());
+
+  public static final List<Pattern> PATTERNS = KEY_FORMATS.stream()
+      .map(format -> Pattern.compile(String.format(format, "(.*)", "(.*)")))
+      .collect(Collectors.toUnmodifiableList());
+
   private final ArgsDto args;
 
   @Bean
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.direction;
+
+/**
+ * Source and target storage of a migration run.
+ */
+public enum MigrationDirection {
+
+  /**
+   * Migration of form data to redis, the default.
+   */
+  CEPH_TO_REDIS(StorageType.CEPH, StorageType.REDIS),
+  /**
+   * Rollback of migrated form data.
+   */
+  REDIS_TO_CEPH(StorageType.REDIS, StorageType.CEPH),
+  /**
+   * Copy between redis instances configured by {@code storage.backend.redis} and
+   * {@code storage.backend.redis-target}.
+   */
+  REDIS_TO_REDIS(StorageType.REDIS, StorageType.REDIS);
+
+  private final StorageType source;
+  private final StorageType target;
+
+  MigrationDirection(StorageType source, StorageType target) {
+    this.source = source;
+    this.target = target;
+  }
+
+  public StorageType getSource() {
+    return source;
+  }
+
+  public StorageType getTarget() {
+    return target;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.direction;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+
+/**
+ * Storage backend form data is migrated from or to, with the operations its calls are recorded
+ * as.
+ */
+public enum StorageType {
+
+  CEPH(Operation.CEPH_GET, Operation.CEPH_EXISTS, Operation.CEPH_PUT, Operation.CEPH_DELETE),
+  REDIS(Operation.REDIS_GET, Operation.REDIS_EXISTS, Operation.REDIS_PUT, Operation.REDIS_DELETE);
+
+  private final Operation get;
+  private final Operation exists;
+  private final Operation put;
+  private final Operation delete;
+
+  StorageType(Operation get, Operation exists, Operation put, Operation delete) {
+    this.get = get;
+    this.exists = exists;
+    this.put = put;
+    this.delete = delete;
+  }
+
+  public Operation getGet() {
+    return get;
+  }
+
+  public Operation getExists() {
+    return exists;
+  }
+
+  public Operation getPut() {
+    return put;
+  }
+
+  public Operation getDelete() {
+    return delete;
+  }
+}
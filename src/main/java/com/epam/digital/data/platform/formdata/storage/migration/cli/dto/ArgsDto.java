@@ -18,6 +18,8 @@ package com.epam.digital.data.platform.formdata.storage.migration.cli.dto;
 
 import java.util.ArrayList;
 import java.util.List;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.MigrationDirection;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.policy.ConflictPolicy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -38,4 +40,92 @@ public class ArgsDto {
   private boolean deleteInvalidData;
   @Value("#{'${additional-key-patterns}'.split(',')}")
   private List<String> additionalKeyPatterns = new ArrayList<>();
+  @Value("${concurrency:1}")
+  private int concurrency;
+  @Value("${write-concurrency:0}")
+  private int writeConcurrency;
+  @Value("${page-size:0}")
+  private int pageSize;
+  @Value("${large-payload-bytes:0}")
+  private long largePayloadBytes;
+  @Value("${large-payload-concurrency:1}")
+  private int largePayloadConcurrency;
+  @Value("${listing-concurrency:1}")
+  private int listingConcurrency;
+  @Value("${redis-batch-size:0}")
+  private int redisBatchSize;
+  @Value("${redis-keyspace:bpm-form-submissions}")
+  private String redisKeyspace;
+  @Value("${redis-scan-count:0}")
+  private int redisScanCount;
+  @Value("${delete-chunk-size:1000}")
+  private int deleteChunkSize;
+  @Value("${delete-concurrency:1}")
+  private int deleteConcurrency;
+  @Value("${journal-file:}")
+  private String journalFile;
+  @Value("${resume:false}")
+  private boolean resume;
+  @Value("${journal-sync-interval:1000}")
+  private int journalSyncInterval;
+  @Value("${progress-interval:30}")
+  private int progressInterval;
+  @Value("${metrics-file:}")
+  private String metricsFile;
+  @Value("${shard-index:0}")
+  private int shardIndex;
+  @Value("${shard-count:1}")
+  private int shardCount;
+  @Value("${max-ops-per-second:0}")
+  private double maxOpsPerSecond;
+  @Value("${max-bytes-per-second:0}")
+  private long maxBytesPerSecond;
+  @Value("${latency-target-ms:0}")
+  private long latencyTargetMs;
+  @Value("${max-error-rate:0.01}")
+  private double maxErrorRate;
+  @Value("${retry-attempts:5}")
+  private int retryAttempts;
+  @Value("${retry-backoff-ms:200}")
+  private long retryBackoffMs;
+  @Value("${retry-max-backoff-ms:5000}")
+  private long retryMaxBackoffMs;
+  @Value("${circuit-breaker-threshold:10}")
+  private int circuitBreakerThreshold;
+  @Value("${circuit-breaker-open-ms:5000}")
+  private long circuitBreakerOpenMs;
+  @Value("${dead-letter-file:}")
+  private String deadLetterFile;
+  @Value("${retry-failed:false}")
+  private boolean retryFailed;
+  @Value("${conflict-policy:}")
+  private ConflictPolicy conflictPolicy;
+  @Value("${source-modified-ttl-days:30}")
+  private int sourceModifiedTtlDays;
+  @Value("${verify:false}")
+  private boolean verify;
+  @Value("${delta-watermark-file:}")
+  private String deltaWatermarkFile;
+  @Value("${direction:ceph-to-redis}")
+  private MigrationDirection direction;
+  @Value("${raw-read:false}")
+  private boolean rawRead;
+  @Value("${startup-only:false}")
+  private boolean startupOnly;
+  @Value("${dry-run:false}")
+  private boolean dryRun;
+  @Value("${dry-run-report:}")
+  private String dryRunReport;
+  @Value("#{'${key-types:}'.split(',')}")
+  private List<String> keyTypes;
+  @Value("#{'${process-definitions:}'.split(',')}")
+  private List<String> processDefinitions;
+  @Value("#{'${include-prefixes:}'.split(',')}")
+  private List<String> includePrefixes;
+  @Value("#{'${exclude-prefixes:}'.split(',')}")
+  private List<String> excludePrefixes;
+
+  public MigrationDirection getDirection() {
+    return direction == null ? MigrationDirection.CEPH_TO_REDIS : direction;
+  }
 }
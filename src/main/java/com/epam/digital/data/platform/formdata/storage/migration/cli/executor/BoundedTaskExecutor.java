@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Executes tasks on a fixed number of worker threads. The number of submitted but not yet
+ * finished tasks is bounded, so {@link #submit(Runnable)} blocks the caller instead of buffering
+ * an unbounded amount of work. The first task failure stops execution of pending tasks and is
+ * rethrown to the caller.
+ */
+public class BoundedTaskExecutor implements AutoCloseable {
+
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  public BoundedTaskExecutor(int threads, String threadNamePrefix) {
+    this.executor = Executors.newFixedThreadPool(threads,
+        new CustomizableThreadFactory(threadNamePrefix));
+    this.permits = new Semaphore(threads * 2);
+  }
+
+  public void submit(Runnable task) {
+    throwIfFailed();
+    acquirePermit();
+    executor.execute(() -> {
+      try {
+        if (failure.get() == null) {
+          task.run();
+        }
+      } catch (RuntimeException | Error exception) {
+        failure.compareAndSet(null, exception);
+      } finally {
+        permits.release();
+      }
+    });
+  }
+
+  public void awaitCompletion() {
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        // keep waiting until all submitted tasks are finished
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for tasks completion", exception);
+    }
+    throwIfFailed();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void acquirePermit() {
+    try {
+      permits.acquire();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a free worker", exception);
+    }
+  }
+
+  private void throwIfFailed() {
+    var exception = failure.get();
+    if (exception instanceof RuntimeException) {
+      throw (RuntimeException) exception;
+    }
+    if (exception instanceof Error) {
+      throw (Error) exception;
+    }
+  }
+}
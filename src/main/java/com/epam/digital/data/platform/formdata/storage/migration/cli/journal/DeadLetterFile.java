@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * File with keys whose migration failed after all retries, one key per line. A later run with
+ * {@code --retry-failed} migrates only these keys. Keys stay in the file until a retry of them
+ * completes, so failures of earlier runs are never lost.
+ */
+@Slf4j
+public class DeadLetterFile implements AutoCloseable {
+
+  private final Path path;
+  private final Path replacement;
+  private final BufferedWriter writer;
+  private int count;
+  private boolean completed;
+
+  private DeadLetterFile(Path path, Path replacement, BufferedWriter writer) {
+    this.path = path;
+    this.replacement = replacement;
+    this.writer = writer;
+  }
+
+  /**
+   * Opens the file for appending, keys of the previous runs are kept.
+   */
+  public static DeadLetterFile open(Path path) {
+    try {
+      return new DeadLetterFile(path, null, Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot open dead letter file " + path, exception);
+    }
+  }
+
+  /**
+   * Opens a replacement of the file for the keys that fail again while its keys are retried. The
+   * replacement takes the place of the file on close only if the retry was
+   * {@link #complete() completed}, otherwise the file is kept as is.
+   */
+  public static DeadLetterFile openReplacement(Path path) {
+    var replacement = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      return new DeadLetterFile(path, replacement,
+          Files.newBufferedWriter(replacement, StandardCharsets.UTF_8));
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot open dead letter file " + replacement, exception);
+    }
+  }
+
+  public static Set<String> read(Path path) {
+    try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      return lines.map(String::strip)
+          .filter(line -> !line.isEmpty())
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot read dead letter file " + path, exception);
+    }
+  }
+
+  /**
+   * Adds the key and flushes it right away, as failed keys are rare and must not be lost if the
+   * run is aborted.
+   */
+  public synchronized void add(String key) {
+    try {
+      writer.write(key);
+      writer.newLine();
+      writer.flush();
+      count++;
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot write dead letter file " + path, exception);
+    }
+  }
+
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Marks the retry of the keys as completed, so the replacement is kept on close.
+   */
+  public synchronized void complete() {
+    completed = true;
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      writer.close();
+      if (replacement != null && completed) {
+        Files.move(replacement, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } else if (replacement != null) {
+        Files.deleteIfExists(replacement);
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot close dead letter file " + path, exception);
+    }
+    if (count > 0) {
+      log.warn("{} failed keys written to dead letter file '{}'", count, path);
+    }
+  }
+}
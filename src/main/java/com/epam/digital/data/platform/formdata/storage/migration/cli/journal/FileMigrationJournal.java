@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal stored in a local file, one {@code <status> <key>} line per record. Records
+ * are buffered and written together with an fsync once {@code syncInterval} records are
+ * collected, so a crash loses at most the last unsynced records. Losing them is safe, such keys
+ * are just processed again.
+ *
+ * <p>On resume the keys of previous runs are restored into a sorted array with the last status of
+ * each key stored as a byte at the same position, as a hash map entry per key would take several
+ * times more heap than the keys themselves.
+ */
+@Slf4j
+public class FileMigrationJournal implements MigrationJournal {
+
+  private static final char SEPARATOR = ' ';
+  private static final KeyStatus[] STATUSES = KeyStatus.values();
+
+  private final Path path;
+  private final FileChannel channel;
+  private final int syncInterval;
+  private final String[] restoredKeys;
+  private final byte[] restoredStatuses;
+  private final StringBuilder pending = new StringBuilder();
+  private int pendingRecords;
+
+  private FileMigrationJournal(Path path, FileChannel channel, int syncInterval,
+      String[] restoredKeys, byte[] restoredStatuses) {
+    this.path = path;
+    this.channel = channel;
+    this.syncInterval = Math.max(syncInterval, 1);
+    this.restoredKeys = restoredKeys;
+    this.restoredStatuses = restoredStatuses;
+  }
+
+  /**
+   * Opens the journal file. When {@code resume} is set, statuses recorded by previous runs are
+   * restored and new records are appended, otherwise the file is truncated.
+   */
+  public static FileMigrationJournal open(Path path, boolean resume, int syncInterval) {
+    try {
+      var restoredKeys = resume && Files.exists(path) ? readKeys(path) : new String[0];
+      var restoredStatuses = readStatuses(path, restoredKeys);
+      var channel = resume
+          ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND)
+          : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+      log.info("Migration journal '{}' opened, {} keys restored", path, restoredKeys.length);
+      return new FileMigrationJournal(path, channel, syncInterval, restoredKeys,
+          restoredStatuses);
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot open migration journal " + path, exception);
+    }
+  }
+
+  @Override
+  public KeyStatus getStatus(String key) {
+    var index = Arrays.binarySearch(restoredKeys, key);
+    return index >= 0 ? STATUSES[restoredStatuses[index]] : null;
+  }
+
+  @Override
+  public synchronized void record(String key, KeyStatus status) {
+    pending.append(status.name()).append(SEPARATOR).append(key).append('\n');
+    if (++pendingRecords >= syncInterval) {
+      sync();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      sync();
+      channel.close();
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot close migration journal " + path, exception);
+    }
+  }
+
+  private void sync() {
+    if (pendingRecords == 0) {
+      return;
+    }
+    try {
+      var buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+      pending.setLength(0);
+      pendingRecords = 0;
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot write migration journal " + path, exception);
+    }
+  }
+
+  /**
+   * Returns the distinct keys of the journal sorted.
+   */
+  private static String[] readKeys(Path path) throws IOException {
+    var keys = new ArrayList<String>();
+    forEachRecord(path, (key, status) -> keys.add(key),
+        line -> log.warn("Skipping malformed migration journal record '{}'", line));
+    var sorted = keys.toArray(String[]::new);
+    keys.clear();
+    Arrays.parallelSort(sorted);
+    var distinct = 0;
+    for (var key : sorted) {
+      if (distinct == 0 || !sorted[distinct - 1].equals(key)) {
+        sorted[distinct++] = key;
+      }
+    }
+    return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+  }
+
+  /**
+   * Reads the journal again and returns the ordinal of the last status of each of the keys.
+   */
+  private static byte[] readStatuses(Path path, String[] keys) throws IOException {
+    var statuses = new byte[keys.length];
+    if (keys.length > 0) {
+      forEachRecord(path,
+          (key, status) -> statuses[Arrays.binarySearch(keys, key)] = (byte) status.ordinal(),
+          line -> {
+            // already reported while reading the keys
+          });
+    }
+    return statuses;
+  }
+
+  private static void forEachRecord(Path path, BiConsumer<String, KeyStatus> action,
+      Consumer<String> malformed) throws IOException {
+    try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      lines.forEach(line -> {
+        var separator = line.indexOf(SEPARATOR);
+        var status = separator > 0 ? parseStatus(line.substring(0, separator)) : null;
+        if (status == null) {
+          malformed.accept(line);
+          return;
+        }
+        action.accept(line.substring(separator + 1), status);
+      });
+    }
+  }
+
+  private static KeyStatus parseStatus(String value) {
+    try {
+      return KeyStatus.valueOf(value);
+    } catch (IllegalArgumentException exception) {
+      return null;
+    }
+  }
+}
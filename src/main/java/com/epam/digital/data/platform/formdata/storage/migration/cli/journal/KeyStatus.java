@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+/**
+ * Outcome of processing a single key recorded in the {@link MigrationJournal}.
+ */
+public enum KeyStatus {
+
+  /**
+   * Form data was written to the target storage.
+   */
+  MIGRATED,
+  /**
+   * Form data was already present in the target storage.
+   */
+  SKIPPED,
+  /**
+   * Key does not match any of the known key patterns.
+   */
+  INVALID,
+  /**
+   * Form data could not be migrated, the key is processed again on resume.
+   */
+  FAILED,
+  /**
+   * Form data was written to the target storage but failed the verification, the key is kept in
+   * the source storage and processed again on resume.
+   */
+  MISMATCHED,
+  /**
+   * Key was deleted from the source storage.
+   */
+  DELETED;
+
+  /**
+   * Whether the key needs no more migration attempts.
+   */
+  public boolean isCompleted() {
+    return this != FAILED && this != MISMATCHED;
+  }
+}
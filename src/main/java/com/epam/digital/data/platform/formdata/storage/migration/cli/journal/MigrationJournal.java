@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+import java.util.Collection;
+
+/**
+ * Journal of per-key migration results that allows resuming an interrupted migration without
+ * checking already completed keys against the storages again.
+ */
+public interface MigrationJournal extends AutoCloseable {
+
+  /**
+   * Journal that neither records nor restores anything.
+   */
+  MigrationJournal NONE = new MigrationJournal() {
+
+    @Override
+    public KeyStatus getStatus(String key) {
+      return null;
+    }
+
+    @Override
+    public void record(String key, KeyStatus status) {
+      // nothing to record
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  };
+
+  /**
+   * Returns the last status recorded for the key by a previous run or {@code null} if the key is
+   * unknown.
+   */
+  KeyStatus getStatus(String key);
+
+  void record(String key, KeyStatus status);
+
+  default void recordAll(Collection<String> keys, KeyStatus status) {
+    keys.forEach(key -> record(key, status));
+  }
+
+  @Override
+  void close();
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.metrics;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Kind of form data by the format of its key.
+ */
+public enum KeyType {
+
+  TASK("task", FormDataKeyProviderImpl.TASK_FORM_DATA_KEY_FORMAT),
+  START_FORM("start-form", FormDataKeyProviderImpl.START_FORM_DATA_KEY_FORMAT),
+  START_MESSAGE("start-message", FormDataKeyProviderImpl.START_FORM_DATA_VALUE_FORMAT),
+  SYSTEM_SIGNATURE("system-signature", FormDataKeyProviderImpl.SYSTEM_SIGNATURE_STORAGE_KEY),
+  BATCH_SYSTEM_SIGNATURE("batch-system-signature",
+      FormDataKeyProviderImpl.BATCH_SYSTEM_SIGNATURE_STORAGE_KEY),
+  /**
+   * Keys of additional key patterns.
+   */
+  OTHER("other", null);
+
+  private static final Map<String, KeyType> BY_REGEX = Arrays.stream(values())
+      .filter(keyType -> keyType.regex != null)
+      .collect(Collectors.toUnmodifiableMap(keyType -> keyType.regex, Function.identity()));
+  private static final FormDataKeyValidator KEY_FORMATS = new FormDataKeyValidator(
+      BY_REGEX.values().stream()
+          .sorted()
+          .map(keyType -> Pattern.compile(keyType.regex))
+          .collect(Collectors.toList()));
+
+  private final String tag;
+  private final String keyFormat;
+  private final String regex;
+
+  KeyType(String tag, String keyFormat) {
+    this.tag = tag;
+    this.keyFormat = keyFormat;
+    this.regex = keyFormat == null ? null : String.format(keyFormat, "(.*)", "(.*)");
+  }
+
+  /**
+   * Detects the type by matching the literal parts of the key formats, no regex is run.
+   */
+  public static KeyType of(String key) {
+    return of(KEY_FORMATS.findPattern(key));
+  }
+
+  /**
+   * Type of the keys matching the pattern found by a {@link FormDataKeyValidator}, keys of other
+   * patterns are {@link #OTHER}.
+   */
+  public static KeyType of(Pattern pattern) {
+    return pattern == null ? OTHER : BY_REGEX.getOrDefault(pattern.pattern(), OTHER);
+  }
+
+  public static KeyType ofTag(String tag) {
+    for (var keyType : values()) {
+      if (keyType.tag.equals(tag)) {
+        return keyType;
+      }
+    }
+    throw new IllegalArgumentException("Unknown key type: " + tag);
+  }
+
+  public String getTag() {
+    return tag;
+  }
+
+  /**
+   * Prefix all keys of the type start with, empty for {@link #OTHER}.
+   */
+  public String getPrefix() {
+    return keyFormat == null ? "" : keyFormat.substring(0, keyFormat.indexOf("%s"));
+  }
+
+  /**
+   * Prefix all keys of the type that belong to the process definition start with, {@code null}
+   * if keys of the type do not refer to a process definition.
+   */
+  public String getPrefix(String processDefinition) {
+    if (this != START_FORM && this != START_MESSAGE) {
+      return null;
+    }
+    return String.format(keyFormat, processDefinition, "");
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.metrics;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters of processed keys by {@link KeyStatus}, latency histograms of storage calls and of
+ * whole key migrations, and size histograms of migrated payloads by {@link KeyType}.
+ */
+@Component
+public class MigrationMetrics {
+
+  private final PrometheusMeterRegistry registry;
+  private final Map<KeyStatus, Counter> keyCounters = new EnumMap<>(KeyStatus.class);
+  private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+  private final Map<KeyType, DistributionSummary> payloadSizes = new EnumMap<>(KeyType.class);
+  private final Timer keyDuration;
+  private final Counter bytes;
+
+  public MigrationMetrics(PrometheusMeterRegistry registry) {
+    this.registry = registry;
+    for (var status : KeyStatus.values()) {
+      keyCounters.put(status, Counter.builder("formdata.migration.keys")
+          .description("Number of processed keys by status")
+          .tag("status", status.name().toLowerCase(Locale.ROOT))
+          .register(registry));
+    }
+    for (var operation : Operation.values()) {
+      timers.put(operation, Timer.builder("formdata.migration.storage.requests")
+          .description("Latency of storage requests")
+          .tag("operation", operation.getTag())
+          .publishPercentileHistogram()
+          .publishPercentiles(0.5, 0.99)
+          .register(registry));
+    }
+    for (var keyType : KeyType.values()) {
+      payloadSizes.put(keyType, DistributionSummary.builder("formdata.migration.payload.size")
+          .description("Size of migrated payloads by key type")
+          .tag("key_type", keyType.getTag())
+          .baseUnit("bytes")
+          .publishPercentileHistogram()
+          .publishPercentiles(0.5, 0.99)
+          .register(registry));
+    }
+    this.keyDuration = Timer.builder("formdata.migration.key.duration")
+        .description("Time from reading a key from the source until its write to the target")
+        .publishPercentileHistogram()
+        .publishPercentiles(0.5, 0.99)
+        .register(registry);
+    this.bytes = Counter.builder("formdata.migration.bytes")
+        .description("Size of payloads written to the target")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  public void count(KeyStatus status) {
+    keyCounters.get(status).increment();
+  }
+
+  public void count(KeyStatus status, long keys) {
+    keyCounters.get(status).increment(keys);
+  }
+
+  public void countBytes(long processedBytes) {
+    bytes.increment(processedBytes);
+  }
+
+  public void recordPayloadSize(KeyType keyType, long size) {
+    payloadSizes.get(keyType).record(size);
+  }
+
+  public DistributionSummary getPayloadSizes(KeyType keyType) {
+    return payloadSizes.get(keyType);
+  }
+
+  public long getCount(KeyStatus status) {
+    return (long) keyCounters.get(status).count();
+  }
+
+  public long getBytes() {
+    return (long) bytes.count();
+  }
+
+  /**
+   * Number of keys that got a final migration status, i.e. all except deleted ones.
+   */
+  public long getProcessedKeys() {
+    return Arrays.stream(KeyStatus.values())
+        .filter(status -> status != KeyStatus.DELETED)
+        .mapToLong(this::getCount)
+        .sum();
+  }
+
+  public void recordKeyDuration(long startNanos) {
+    keyDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public Timer getKeyDuration() {
+    return keyDuration;
+  }
+
+  public Timer getTimer(Operation operation) {
+    return timers.get(operation);
+  }
+
+  public <T> T record(Operation operation, Supplier<T> call) {
+    return timers.get(operation).record(call);
+  }
+
+  public void record(Operation operation, Runnable call) {
+    timers.get(operation).record(call);
+  }
+
+  /**
+   * Writes all metrics to the file in Prometheus text format.
+   */
+  public void export(Path path) {
+    try {
+      Files.writeString(path, registry.scrape());
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot export metrics to " + path, exception);
+    }
+  }
+
+  public enum Operation {
+    CEPH_GET("ceph-get", "ceph"),
+    CEPH_EXISTS("ceph-exists", "ceph"),
+    CEPH_PUT("ceph-put", "ceph"),
+    CEPH_DELETE("ceph-delete", "ceph"),
+    REDIS_GET("redis-get", "redis"),
+    REDIS_EXISTS("redis-exists", "redis"),
+    REDIS_PUT("redis-put", "redis"),
+    REDIS_DELETE("redis-delete", "redis");
+
+    private final String tag;
+    private final String backend;
+
+    Operation(String tag, String backend) {
+      this.tag = tag;
+      this.backend = backend;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+
+    public String getBackend() {
+      return backend;
+    }
+  }
+}
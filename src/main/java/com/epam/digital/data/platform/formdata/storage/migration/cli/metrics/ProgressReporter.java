@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.metrics;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Periodically logs a summary of the migration progress: processed keys, throughput and, when the
+ * total number of keys is known, the estimated remaining time.
+ */
+@Slf4j
+public class ProgressReporter implements AutoCloseable {
+
+  private final MigrationMetrics metrics;
+  private final ScheduledExecutorService scheduler;
+  private final long startNanos = System.nanoTime();
+  private volatile long totalKeys = -1;
+
+  public ProgressReporter(MigrationMetrics metrics, Duration interval) {
+    this.metrics = metrics;
+    var threadFactory = new CustomizableThreadFactory("progress-");
+    threadFactory.setDaemon(true);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    if (!interval.isZero() && !interval.isNegative()) {
+      scheduler.scheduleAtFixedRate(this::report, interval.toMillis(), interval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void setTotalKeys(long totalKeys) {
+    this.totalKeys = totalKeys;
+  }
+
+  public void report() {
+    var elapsedSeconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+    var processed = metrics.getProcessedKeys();
+    var keysPerSecond = processed / elapsedSeconds;
+    var bytesPerSecond = metrics.getBytes() / elapsedSeconds;
+    log.info("Progress: {} keys processed ({} migrated, {} skipped, {} invalid, {} failed, "
+            + "{} mismatched), {} deleted, {} keys/sec, {} bytes/sec, ETA {}",
+        processed, metrics.getCount(KeyStatus.MIGRATED), metrics.getCount(KeyStatus.SKIPPED),
+        metrics.getCount(KeyStatus.INVALID), metrics.getCount(KeyStatus.FAILED),
+        metrics.getCount(KeyStatus.MISMATCHED), metrics.getCount(KeyStatus.DELETED),
+        Math.round(keysPerSecond), Math.round(bytesPerSecond), eta(processed, keysPerSecond));
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    report();
+  }
+
+  private String eta(long processed, double keysPerSecond) {
+    var total = totalKeys;
+    if (total < 0 || keysPerSecond <= 0) {
+      return "unknown";
+    }
+    return Duration.ofSeconds((long) (Math.max(total - processed, 0) / keysPerSecond)).toString();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.plan;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.MigrationPlanDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.PatternSummaryDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.executor.BoundedTaskExecutor;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.policy.ConflictPolicy;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeySelector;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeyShardFilter;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds a migration plan without moving any data: source objects are counted per key pattern
+ * using sizes from the listing, and the target is checked in batches for keys the conflict policy
+ * would skip.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigrationPlanner {
+
+  private static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final ArgsDto args;
+  private final FormDataKeyValidator validator;
+  private final FormDataKeySource sourceKeySource;
+  private final TargetBatchOperations targetBatchOperations;
+  private final ObjectMapper objectMapper;
+
+  public MigrationPlanDto plan(KeyShardFilter shard, KeySelector selector) {
+    var summaries = new LinkedHashMap<Pattern, Summary>();
+    validator.patterns.forEach(pattern -> summaries.put(pattern, new Summary()));
+    var invalid = new Summary();
+    var pageSize = args.getPageSize() > 0 ? args.getPageSize() : DEFAULT_BATCH_SIZE;
+    var batchSize = args.getRedisBatchSize() > 0 ? args.getRedisBatchSize() : DEFAULT_BATCH_SIZE;
+    try (var executor = new BoundedTaskExecutor(Math.max(args.getConcurrency(), 1), "plan-")) {
+      selector.forEachPage(sourceKeySource, pageSize, page -> {
+        var objects = page.stream()
+            .filter(object -> shard.test(object.getKey()))
+            .collect(Collectors.toList());
+        for (int from = 0; from < objects.size(); from += batchSize) {
+          var batch = objects.subList(from, Math.min(from + batchSize, objects.size()));
+          executor.submit(() -> planBatch(batch, summaries, invalid));
+        }
+      });
+      executor.awaitCompletion();
+    }
+    var plan = toPlan(summaries, invalid);
+    report(plan);
+    return plan;
+  }
+
+  private void planBatch(List<SourceObjectDto> batch, Map<Pattern, Summary> summaries,
+      Summary invalid) {
+    var valid = new ArrayList<SourceObjectDto>();
+    var patterns = new ArrayList<Pattern>();
+    batch.forEach(object -> {
+      var pattern = validator.findPattern(object.getKey());
+      if (pattern == null) {
+        invalid.add(object.getSize(), false);
+      } else {
+        valid.add(object);
+        patterns.add(pattern);
+      }
+    });
+    var sourceObjects = valid.stream()
+        .collect(Collectors.toMap(SourceObjectDto::getKey, Function.identity(), (a, b) -> a));
+    var conflicting = ConflictPolicy.of(args).findConflicting(targetBatchOperations,
+        valid.stream().map(SourceObjectDto::getKey).collect(Collectors.toList()), sourceObjects);
+    for (int i = 0; i < valid.size(); i++) {
+      var object = valid.get(i);
+      summaries.get(patterns.get(i)).add(object.getSize(),
+          conflicting.contains(object.getKey()));
+    }
+  }
+
+  private MigrationPlanDto toPlan(Map<Pattern, Summary> summaries, Summary invalid) {
+    var patterns = summaries.entrySet().stream()
+        .map(entry -> entry.getValue().toDto(entry.getKey().pattern()))
+        .collect(Collectors.toList());
+    return MigrationPlanDto.builder()
+        .patterns(patterns)
+        .invalidKeys(invalid.keys.sum())
+        .invalidBytes(invalid.bytes.sum())
+        .keysToMigrate(patterns.stream()
+            .mapToLong(summary -> summary.getKeys() - summary.getKeysInRedis())
+            .sum())
+        .bytesToMigrate(patterns.stream()
+            .mapToLong(summary -> summary.getBytes() - summary.getBytesInRedis())
+            .sum())
+        .build();
+  }
+
+  private void report(MigrationPlanDto plan) {
+    plan.getPatterns().forEach(summary -> log.info(
+        "Pattern '{}': {} keys ({} bytes), {} keys ({} bytes) kept in target by conflict policy",
+        summary.getPattern(), summary.getKeys(), summary.getBytes(), summary.getKeysInRedis(),
+        summary.getBytesInRedis()));
+    log.info("Invalid keys: {} ({} bytes)", plan.getInvalidKeys(), plan.getInvalidBytes());
+    log.info("Keys to migrate: {} ({} bytes)", plan.getKeysToMigrate(),
+        plan.getBytesToMigrate());
+    if (StringUtils.hasText(args.getDryRunReport())) {
+      try {
+        objectMapper.writerWithDefaultPrettyPrinter()
+            .writeValue(Path.of(args.getDryRunReport()).toFile(), plan);
+      } catch (IOException exception) {
+        throw new UncheckedIOException("Cannot write dry run report", exception);
+      }
+      log.info("Dry run report written to '{}'", args.getDryRunReport());
+    }
+  }
+
+  private static class Summary {
+
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder keysInRedis = new LongAdder();
+    private final LongAdder bytesInRedis = new LongAdder();
+
+    void add(long size, boolean inRedis) {
+      keys.increment();
+      bytes.add(size);
+      if (inRedis) {
+        keysInRedis.increment();
+        bytesInRedis.add(size);
+      }
+    }
+
+    PatternSummaryDto toDto(String pattern) {
+      return PatternSummaryDto.builder()
+          .pattern(pattern)
+          .keys(keys.sum())
+          .bytes(bytes.sum())
+          .keysInRedis(keysInRedis.sum())
+          .bytesInRedis(bytesInRedis.sum())
+          .build();
+    }
+  }
+}
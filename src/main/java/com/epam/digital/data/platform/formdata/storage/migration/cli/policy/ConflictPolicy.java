@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.policy;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.util.StringUtils;
+
+/**
+ * What to do with a key that is already present in redis.
+ */
+public enum ConflictPolicy {
+
+  /**
+   * Keep the redis data.
+   */
+  SKIP,
+  /**
+   * Always write the source data, redis is not checked at all.
+   */
+  OVERWRITE,
+  /**
+   * Write the source data only if the source object was modified after the version migrated
+   * before. Data without a recorded source modification time is written as well.
+   */
+  OVERWRITE_IF_SOURCE_NEWER;
+
+  /**
+   * Policy of the run, {@link #SKIP} by default. A delta run lists objects modified since the
+   * previous run, whose older versions are in the target already, so it defaults to
+   * {@link #OVERWRITE_IF_SOURCE_NEWER}.
+   */
+  public static ConflictPolicy of(ArgsDto args) {
+    if (args.getConflictPolicy() != null) {
+      return args.getConflictPolicy();
+    }
+    return StringUtils.hasText(args.getDeltaWatermarkFile()) ? OVERWRITE_IF_SOURCE_NEWER : SKIP;
+  }
+
+  /**
+   * Finds keys that must not be migrated because of the data already present in the target. Used
+   * by the migration and by its dry run alike, so the plan counts the keys the migration writes.
+   *
+   * @param sourceObjects listed source objects by key, their modification times are compared by
+   *                      {@link #OVERWRITE_IF_SOURCE_NEWER}
+   */
+  public Set<String> findConflicting(TargetBatchOperations targetBatchOperations,
+      List<String> keys, Map<String, SourceObjectDto> sourceObjects) {
+    switch (this) {
+      case OVERWRITE:
+        return Set.of();
+      case OVERWRITE_IF_SOURCE_NEWER:
+        var sourceModified = new HashMap<String, Instant>();
+        keys.forEach(key -> {
+          var source = sourceObjects.get(key);
+          if (source != null && source.getLastModified() != null) {
+            sourceModified.put(key, source.getLastModified());
+          }
+        });
+        return targetBatchOperations.findUpToDate(keys, sourceModified);
+      default:
+        return targetBatchOperations.findExisting(keys);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.redis;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Captures the redis commands of a storage call instead of sending them, so the commands of many
+ * calls are sent later in one pipeline, in the format of the storage library. Recording
+ * connections answer every command with an empty result, e.g. {@code 0} or {@code false}, so
+ * only calls that do not depend on the results of their commands, like writes, can be recorded.
+ */
+public class RedisCommandRecorder {
+
+  private static final Set<String> LOCAL_METHODS = Set.of("close", "isClosed", "openPipeline",
+      "closePipeline", "isPipelined", "isQueueing", "getNativeConnection", "hashCode", "equals",
+      "toString");
+
+  private final ThreadLocal<List<Command>> recording = new ThreadLocal<>();
+  private final RedisConnectionFactory connectionFactory = (RedisConnectionFactory)
+      Proxy.newProxyInstance(RedisCommandRecorder.class.getClassLoader(),
+          new Class<?>[]{RedisConnectionFactory.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "getConnection":
+                return connection();
+              case "getConvertPipelineAndTxResults":
+                return true;
+              case "translateExceptionIfPossible":
+                return null;
+              case "hashCode":
+                return System.identityHashCode(proxy);
+              case "equals":
+                return proxy == args[0];
+              case "toString":
+                return RedisCommandRecorder.class.getSimpleName();
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+
+  /**
+   * Connection factory the recorded storage calls have to use.
+   */
+  public RedisConnectionFactory getConnectionFactory() {
+    return connectionFactory;
+  }
+
+  /**
+   * Runs the storage call on the current thread and returns the commands it sent.
+   */
+  public List<Command> record(Runnable call) {
+    var commands = new ArrayList<Command>();
+    recording.set(commands);
+    try {
+      call.run();
+    } finally {
+      recording.remove();
+    }
+    return commands;
+  }
+
+  private RedisConnection connection() {
+    return (RedisConnection) Proxy.newProxyInstance(RedisCommandRecorder.class.getClassLoader(),
+        new Class<?>[]{RedisConnection.class}, (proxy, method, args) -> {
+          var name = method.getName();
+          if (name.endsWith("Commands") && method.getParameterCount() == 0
+              && method.getReturnType().isInstance(proxy)) {
+            return proxy;
+          }
+          if (LOCAL_METHODS.contains(name)) {
+            return local(proxy, method, args);
+          }
+          var commands = recording.get();
+          if (commands == null) {
+            throw new IllegalStateException("Redis command sent outside of a recording: " + name);
+          }
+          commands.add(new Command(method, args));
+          return emptyResult(method.getReturnType());
+        });
+  }
+
+  private static Object local(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "closePipeline":
+        return List.of();
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      case "toString":
+        return RedisCommandRecorder.class.getSimpleName();
+      default:
+        return emptyResult(method.getReturnType());
+    }
+  }
+
+  private static Object emptyResult(Class<?> type) {
+    if (type == boolean.class || type == Boolean.class) {
+      return false;
+    }
+    if (type == long.class || type == Long.class) {
+      return 0L;
+    }
+    if (type == int.class || type == Integer.class) {
+      return 0;
+    }
+    if (type == double.class || type == Double.class) {
+      return 0.0;
+    }
+    if (type == List.class) {
+      return List.of();
+    }
+    if (type == Set.class) {
+      return Set.of();
+    }
+    if (type == Map.class) {
+      return Map.of();
+    }
+    return null;
+  }
+
+  /**
+   * Redis command captured by the recorder.
+   */
+  public static class Command {
+
+    private final Method method;
+    private final Object[] args;
+
+    private Command(Method method, Object[] args) {
+      this.method = method;
+      this.args = args;
+    }
+
+    /**
+     * Sends the command over the connection, e.g. into its open pipeline.
+     */
+    public void send(RedisConnection connection) {
+      try {
+        method.invoke(connection, args);
+      } catch (IllegalAccessException exception) {
+        throw new IllegalStateException(exception);
+      } catch (InvocationTargetException exception) {
+        if (exception.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exception.getCause();
+        }
+        throw new IllegalStateException(exception.getCause());
+      }
+    }
+
+    @Override
+    public String toString() {
+      return method.getName();
+    }
+  }
+}
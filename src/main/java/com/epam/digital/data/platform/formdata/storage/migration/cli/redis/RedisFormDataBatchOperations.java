@@ -0,0 +1,239 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.redis;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.StorageType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Batch operations over the redis form data storage that save round-trips compared to per-key
+ * calls of {@link FormDataStorageService}.
+ */
+@Slf4j
+public class RedisFormDataBatchOperations extends TargetBatchOperations {
+
+  /**
+   * Hash with the modification time of the source object migrated for every key, in epoch
+   * millis. It expires {@code --source-modified-ttl-days} after the last migration that wrote
+   * it.
+   */
+  public static final String SOURCE_MODIFIED_KEY = "form-data-migration:source-last-modified";
+  private static final byte[] SOURCE_MODIFIED_KEY_BYTES =
+      SOURCE_MODIFIED_KEY.getBytes(StandardCharsets.UTF_8);
+  private static final int DEFAULT_SOURCE_MODIFIED_TTL_DAYS = 30;
+
+  private final RedisConnectionFactory redisConnectionFactory;
+  private final RedisCommandRecorder recorder = new RedisCommandRecorder();
+  private final FormDataStorageService recordingFormDataStorageService;
+  private final String keyspace;
+  private final long sourceModifiedTtlSeconds;
+
+  /**
+   * @param storageServiceFactory creates a storage service over the given connection factory,
+   * used to record the write commands of the storage library
+   */
+  public RedisFormDataBatchOperations(RedisConnectionFactory redisConnectionFactory,
+      FormDataStorageService redisFormDataStorageService,
+      Function<RedisConnectionFactory, FormDataStorageService> storageServiceFactory,
+      StorageThrottle throttle, ArgsDto args) {
+    super(redisFormDataStorageService, StorageType.REDIS, throttle, args);
+    this.redisConnectionFactory = redisConnectionFactory;
+    this.recordingFormDataStorageService =
+        storageServiceFactory.apply(recorder.getConnectionFactory());
+    this.keyspace = args.getRedisKeyspace();
+    var ttlDays = args.getSourceModifiedTtlDays() > 0 ? args.getSourceModifiedTtlDays()
+        : DEFAULT_SOURCE_MODIFIED_TTL_DAYS;
+    this.sourceModifiedTtlSeconds = Duration.ofDays(ttlDays).toSeconds();
+  }
+
+  /**
+   * Checks which of the keys are present in redis. All EXISTS commands are sent in one pipeline,
+   * values are not fetched.
+   */
+  @Override
+  public Set<String> findExisting(List<String> keys) {
+    if (keys.isEmpty()) {
+      return Set.of();
+    }
+    var results = throttle.record(Operation.REDIS_EXISTS, () -> {
+      try (var connection = redisConnectionFactory.getConnection()) {
+        connection.openPipeline();
+        keys.forEach(key -> connection.keyCommands().exists(toRedisKey(key)));
+        return connection.closePipeline();
+      }
+    });
+    var existing = new HashSet<String>();
+    for (int i = 0; i < keys.size(); i++) {
+      if (isPositive(results.get(i))) {
+        existing.add(keys.get(i));
+      }
+    }
+    return existing;
+  }
+
+  /**
+   * Finds keys whose redis data is not older than the source: keys present in redis that were
+   * migrated from a source object modified at the same time or later. Keys without a recorded
+   * modification time, e.g. migrated before the time was recorded or after the hash expired, are
+   * stale. EXISTS and HGET commands of the whole batch are sent in one pipeline.
+   */
+  @Override
+  public Set<String> findUpToDate(List<String> keys, Map<String, Instant> sourceModified) {
+    if (keys.isEmpty()) {
+      return Set.of();
+    }
+    var results = throttle.record(Operation.REDIS_EXISTS, () -> {
+      try (var connection = redisConnectionFactory.getConnection()) {
+        connection.openPipeline();
+        keys.forEach(key -> {
+          connection.keyCommands().exists(toRedisKey(key));
+          connection.hashCommands().hGet(SOURCE_MODIFIED_KEY_BYTES, toBytes(key));
+        });
+        return connection.closePipeline();
+      }
+    });
+    var upToDate = new HashSet<String>();
+    for (int i = 0; i < keys.size(); i++) {
+      var key = keys.get(i);
+      if (!isPositive(results.get(2 * i))) {
+        continue;
+      }
+      var migrated = toInstant(results.get(2 * i + 1));
+      var modified = sourceModified.get(key);
+      if (modified == null || migrated != null && !modified.isAfter(migrated)) {
+        upToDate.add(key);
+      }
+    }
+    return upToDate;
+  }
+
+  /**
+   * Writes the batch in one pipeline. The write commands of every key are recorded from the
+   * storage library first, so the data is stored in the library format, and then sent together.
+   * A failed pipeline fails all keys of the batch, as their writes cannot be told apart. Calls
+   * that cannot be recorded are written one by one. {@code RedisFormDataBatchOperationsIT} checks
+   * that the pipelined writes leave the same keys, indexes and expiration as the storage service.
+   */
+  @Override
+  public Map<String, RuntimeException> putAll(Map<String, FormDataDto> formData) {
+    if (formData.isEmpty()) {
+      return Map.of();
+    }
+    var failures = new HashMap<String, RuntimeException>();
+    var unrecorded = new LinkedHashMap<String, FormDataDto>();
+    var pipelined = new ArrayList<String>();
+    var commands = new ArrayList<RedisCommandRecorder.Command>();
+    formData.forEach((key, data) -> {
+      try {
+        commands.addAll(recorder.record(
+            () -> recordingFormDataStorageService.putFormData(key, data)));
+        pipelined.add(key);
+      } catch (IllegalArgumentException exception) {
+        log.error("Migration for '{}' key failed because of invalid data", key, exception);
+        failures.put(key, exception);
+      } catch (RuntimeException exception) {
+        log.debug("Write of '{}' key cannot be pipelined", key, exception);
+        unrecorded.put(key, data);
+      }
+    });
+    if (!commands.isEmpty()) {
+      try {
+        throttle.record(Operation.REDIS_PUT, () -> {
+          try (var connection = redisConnectionFactory.getConnection()) {
+            connection.openPipeline();
+            commands.forEach(command -> command.send(connection));
+            connection.closePipeline();
+          }
+        });
+      } catch (RuntimeException exception) {
+        pipelined.forEach(key -> failures.put(key, exception));
+      }
+    }
+    if (!unrecorded.isEmpty()) {
+      failures.putAll(super.putAll(unrecorded));
+    }
+    return failures;
+  }
+
+  /**
+   * Remembers the modification time of the migrated source objects with a single HSET, pipelined
+   * with an EXPIRE that bounds the lifetime of the hash.
+   */
+  @Override
+  public void recordSourceModified(Map<String, Instant> sourceModified) {
+    if (sourceModified.isEmpty()) {
+      return;
+    }
+    var fields = new HashMap<byte[], byte[]>();
+    sourceModified.forEach((key, modified) ->
+        fields.put(toBytes(key), toBytes(String.valueOf(modified.toEpochMilli()))));
+    throttle.record(Operation.REDIS_PUT, () -> {
+      try (var connection = redisConnectionFactory.getConnection()) {
+        connection.openPipeline();
+        connection.hashCommands().hMSet(SOURCE_MODIFIED_KEY_BYTES, fields);
+        connection.keyCommands().expire(SOURCE_MODIFIED_KEY_BYTES, sourceModifiedTtlSeconds);
+        connection.closePipeline();
+      }
+    });
+  }
+
+  private byte[] toRedisKey(String key) {
+    return toBytes(keyspace + ":" + key);
+  }
+
+  private static byte[] toBytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Instant toInstant(Object result) {
+    if (!(result instanceof byte[])) {
+      return null;
+    }
+    try {
+      return Instant.ofEpochMilli(Long.parseLong(new String((byte[]) result,
+          StandardCharsets.UTF_8)));
+    } catch (NumberFormatException exception) {
+      return null;
+    }
+  }
+
+  private boolean isPositive(Object result) {
+    if (result instanceof Boolean) {
+      return (Boolean) result;
+    }
+    return result instanceof Long && (Long) result > 0;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.retry;
+
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker of a storage backend. It opens after the configured number of consecutive
+ * failures and rejects calls until the open interval passes, then lets a single probe call
+ * through: success closes the breaker, failure opens it again. Invalid form data
+ * ({@link IllegalArgumentException}) is not a failure of the storage.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  private enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int failures;
+  private long openedAt;
+
+  public CircuitBreaker(String name, int failureThreshold, long openNanos) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openNanos;
+  }
+
+  public <T> T call(Supplier<T> call) {
+    if (failureThreshold <= 0) {
+      return call.get();
+    }
+    beforeCall();
+    try {
+      var result = call.get();
+      onSuccess();
+      return result;
+    } catch (IllegalArgumentException exception) {
+      onSuccess();
+      throw exception;
+    } catch (RuntimeException exception) {
+      onFailure();
+      throw exception;
+    }
+  }
+
+  private synchronized void beforeCall() {
+    if (state == State.CLOSED) {
+      return;
+    }
+    var elapsed = System.nanoTime() - openedAt;
+    if (state == State.OPEN && elapsed >= openNanos) {
+      log.info("Circuit breaker of {} storage is half-open, probing", name);
+      state = State.HALF_OPEN;
+      return;
+    }
+    throw new CircuitBreakerOpenException(name, Math.max(openNanos - elapsed, 0));
+  }
+
+  private synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      log.info("Circuit breaker of {} storage is closed", name);
+    }
+    state = State.CLOSED;
+    failures = 0;
+  }
+
+  private synchronized void onFailure() {
+    failures++;
+    if (state == State.HALF_OPEN || state == State.CLOSED && failures >= failureThreshold) {
+      log.warn("Circuit breaker of {} storage is open after {} consecutive failures", name,
+          failures);
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+}
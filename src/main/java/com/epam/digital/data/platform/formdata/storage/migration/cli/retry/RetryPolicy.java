@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retries failed calls with exponential backoff and jitter: the n-th retry waits a random time
+ * between half and the whole of {@code initialBackoff * 2^(n-1)}, capped by the maximum backoff.
+ * When the circuit breaker is open, the retry waits at least until it lets calls through again.
+ * Invalid form data ({@link IllegalArgumentException}) is never retried.
+ */
+@Slf4j
+public class RetryPolicy {
+
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+
+  public RetryPolicy(int maxAttempts, long initialBackoffNanos, long maxBackoffNanos) {
+    this.maxAttempts = Math.max(maxAttempts, 1);
+    this.initialBackoffNanos = Math.max(initialBackoffNanos, 0);
+    this.maxBackoffNanos = Math.max(maxBackoffNanos, this.initialBackoffNanos);
+  }
+
+  public <T> T execute(String name, Supplier<T> call) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return call.get();
+      } catch (IllegalArgumentException exception) {
+        throw exception;
+      } catch (RuntimeException exception) {
+        if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+          throw exception;
+        }
+        var backoff = backoffNanos(attempt, exception);
+        log.warn("Attempt {} of {} call failed, retrying in {} ms: {}", attempt, name,
+            TimeUnit.NANOSECONDS.toMillis(backoff), exception.getMessage());
+        sleep(backoff, exception);
+      }
+    }
+  }
+
+  long backoffNanos(int attempt, RuntimeException exception) {
+    var exponential = initialBackoffNanos << Math.min(attempt - 1, 30);
+    var capped = exponential < 0 ? maxBackoffNanos : Math.min(exponential, maxBackoffNanos);
+    var backoff = capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    if (exception instanceof CircuitBreakerOpenException) {
+      return Math.max(backoff, ((CircuitBreakerOpenException) exception).getRemainingNanos());
+    }
+    return backoff;
+  }
+
+  private static void sleep(long nanos, RuntimeException failure) {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      failure.addSuppressed(exception);
+      throw failure;
+    }
+  }
+}
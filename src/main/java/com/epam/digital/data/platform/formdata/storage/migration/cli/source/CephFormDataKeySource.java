@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Walks the ceph bucket with ListObjectsV2 requests using continuation tokens.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CephFormDataKeySource implements FormDataKeySource {
+
+  private final AmazonS3 cephAmazonS3;
+  private final String bucket;
+
+  @Override
+  public void forEachPage(int pageSize, Consumer<List<SourceObjectDto>> pageConsumer) {
+    forEachPage(null, pageSize, pageConsumer);
+  }
+
+  @Override
+  public void forEachPage(String prefix, int pageSize,
+      Consumer<List<SourceObjectDto>> pageConsumer) {
+    var request = new ListObjectsV2Request()
+        .withBucketName(bucket)
+        .withPrefix(prefix)
+        .withMaxKeys(pageSize);
+    ListObjectsV2Result result;
+    do {
+      result = cephAmazonS3.listObjectsV2(request);
+      log.debug("Listed {} objects from '{}' bucket", result.getKeyCount(), bucket);
+      pageConsumer.accept(result.getObjectSummaries().stream()
+          .map(this::toSourceObject)
+          .collect(Collectors.toList()));
+      request.setContinuationToken(result.getNextContinuationToken());
+    } while (result.isTruncated());
+  }
+
+  private SourceObjectDto toSourceObject(S3ObjectSummary summary) {
+    return SourceObjectDto.builder()
+        .key(summary.getKey())
+        .size(summary.getSize())
+        .lastModified(summary.getLastModified() == null ? null
+            : summary.getLastModified().toInstant())
+        .build();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Reads raw object bytes from the ceph bucket and binds them to {@link FormDataDto} with a
+ * streaming reader, without the intermediate string content the storage service builds. The
+ * bytes are bound by the object mapper the ceph storage service is built with, so both read paths
+ * deserialize the same content the same way.
+ */
+public class CephRawFormDataReader implements FormDataReader {
+
+  private static final int NOT_FOUND = 404;
+
+  private final AmazonS3 cephAmazonS3;
+  private final String bucket;
+  private final ObjectReader formDataReader;
+
+  public CephRawFormDataReader(AmazonS3 cephAmazonS3, String bucket,
+      ObjectMapper storageObjectMapper) {
+    this.cephAmazonS3 = cephAmazonS3;
+    this.bucket = bucket;
+    this.formDataReader = storageObjectMapper.readerFor(FormDataDto.class);
+  }
+
+  @Override
+  public Optional<FormDataDto> getFormData(String key) {
+    byte[] content;
+    try (var object = cephAmazonS3.getObject(bucket, key)) {
+      content = object.getObjectContent().readAllBytes();
+    } catch (AmazonS3Exception exception) {
+      if (exception.getStatusCode() == NOT_FOUND) {
+        return Optional.empty();
+      }
+      throw exception;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return Optional.of(bind(key, content));
+  }
+
+  /**
+   * Content that is not form data fails the key with {@link IllegalArgumentException}, as the
+   * storage service does, so it is not retried as a transient failure.
+   */
+  private FormDataDto bind(String key, byte[] content) {
+    try {
+      return formDataReader.readValue(content);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalArgumentException("Content of '" + key + "' key is not form data",
+          exception);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * High-water mark of source object modification times persisted between runs. Objects modified
+ * before the mark of the previous run are filtered out.
+ *
+ * <p>An object may be modified after it was listed but before a later object with a greater
+ * modification time is listed, so the saved mark never exceeds the start of the run minus a
+ * margin for the clock difference between this host and the storage.
+ */
+@Slf4j
+public class DeltaWatermark implements Predicate<SourceObjectDto> {
+
+  static final Duration CLOCK_SKEW_MARGIN = Duration.ofMinutes(1);
+
+  private final Path path;
+  private final Instant since;
+  private final Instant runStart;
+  private final AtomicReference<Instant> maxSeen = new AtomicReference<>();
+
+  DeltaWatermark(Path path, Instant since, Instant runStart) {
+    this.path = path;
+    this.since = since;
+    this.runStart = runStart;
+  }
+
+  public static DeltaWatermark open(Path path) {
+    var since = read(path);
+    if (since == null) {
+      log.info("No delta watermark in '{}', all source objects are migrated", path);
+    } else {
+      log.info("Migrating source objects modified since {}", since);
+    }
+    return new DeltaWatermark(path, since, Instant.now());
+  }
+
+  /**
+   * Returns {@code true} for objects modified since the previous run or without modification
+   * time and tracks the latest modification time seen.
+   */
+  @Override
+  public boolean test(SourceObjectDto object) {
+    var lastModified = object.getLastModified();
+    if (lastModified == null) {
+      return true;
+    }
+    maxSeen.accumulateAndGet(lastModified,
+        (current, seen) -> current == null || seen.isAfter(current) ? seen : current);
+    return since == null || !lastModified.isBefore(since);
+  }
+
+  public Instant getSince() {
+    return since;
+  }
+
+  /**
+   * Persists the new mark, it never moves backwards.
+   */
+  public void save() {
+    var seen = maxSeen.get();
+    if (seen == null) {
+      return;
+    }
+    var limit = runStart.minus(CLOCK_SKEW_MARGIN);
+    var mark = seen.isAfter(limit) ? limit : seen;
+    if (since != null && mark.isBefore(since)) {
+      mark = since;
+    }
+    try {
+      var temp = path.resolveSibling(path.getFileName() + ".tmp");
+      Files.writeString(temp, mark.toString(), StandardCharsets.UTF_8);
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot write delta watermark " + path, exception);
+    }
+    log.info("Delta watermark {} saved to '{}'", mark, path);
+  }
+
+  private static Instant read(Path path) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try {
+      var content = Files.readString(path, StandardCharsets.UTF_8).strip();
+      return content.isEmpty() ? null : Instant.parse(content);
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Cannot read delta watermark " + path, exception);
+    }
+  }
+}
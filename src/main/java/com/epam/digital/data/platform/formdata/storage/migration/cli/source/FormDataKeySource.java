@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Enumerates objects of the source storage page by page, so the whole key set never has to be
+ * kept in memory.
+ */
+public interface FormDataKeySource {
+
+  /**
+   * Passes all source objects to the consumer in pages of at most {@code pageSize} objects. The
+   * next page is requested only after the consumer returns.
+   */
+  void forEachPage(int pageSize, Consumer<List<SourceObjectDto>> pageConsumer);
+
+  /**
+   * Passes source objects with keys starting with the prefix to the consumer. Sources that can
+   * list a prefix natively override it, by default all objects are listed and filtered.
+   */
+  default void forEachPage(String prefix, int pageSize,
+      Consumer<List<SourceObjectDto>> pageConsumer) {
+    forEachPage(pageSize, page -> {
+      var objects = page.stream()
+          .filter(object -> object.getKey().startsWith(prefix))
+          .collect(Collectors.toList());
+      if (!objects.isEmpty()) {
+        pageConsumer.accept(objects);
+      }
+    });
+  }
+}
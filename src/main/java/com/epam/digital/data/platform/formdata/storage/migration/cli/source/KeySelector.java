@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.KeyType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.springframework.util.StringUtils;
+
+/**
+ * Selects the keys a run migrates by key type, process definition and key prefix. The selection
+ * is pushed down into the listing: only the prefixes that can hold selected keys are listed, and
+ * the listed keys are filtered with the whole selection. Keys that are not selected are neither
+ * migrated nor deleted, whether valid or not.
+ *
+ * <p>Only start form and start message keys refer to a process definition, so a process
+ * definition selection excludes all other key types.
+ */
+public class KeySelector implements Predicate<String> {
+
+  private static final String EVERYTHING = "";
+
+  private final Set<KeyType> keyTypes;
+  private final Set<String> processDefinitions;
+  private final List<String> includePrefixes;
+  private final List<String> excludePrefixes;
+
+  public KeySelector(Collection<KeyType> keyTypes, Collection<String> processDefinitions,
+      Collection<String> includePrefixes, Collection<String> excludePrefixes) {
+    this.keyTypes = keyTypes.isEmpty() ? EnumSet.noneOf(KeyType.class) : EnumSet.copyOf(keyTypes);
+    this.processDefinitions = Set.copyOf(processDefinitions);
+    this.includePrefixes = List.copyOf(includePrefixes);
+    this.excludePrefixes = List.copyOf(excludePrefixes);
+  }
+
+  public static KeySelector of(ArgsDto args) {
+    return new KeySelector(
+        values(args.getKeyTypes()).stream().map(KeyType::ofTag).collect(Collectors.toList()),
+        values(args.getProcessDefinitions()),
+        values(args.getIncludePrefixes()),
+        values(args.getExcludePrefixes()));
+  }
+
+  public boolean isSelective() {
+    return !keyTypes.isEmpty() || !processDefinitions.isEmpty() || !includePrefixes.isEmpty()
+        || !excludePrefixes.isEmpty();
+  }
+
+  @Override
+  public boolean test(String key) {
+    if (!includePrefixes.isEmpty() && includePrefixes.stream().noneMatch(key::startsWith)) {
+      return false;
+    }
+    if (excludePrefixes.stream().anyMatch(key::startsWith)) {
+      return false;
+    }
+    if (keyTypes.isEmpty() && processDefinitions.isEmpty()) {
+      return true;
+    }
+    var keyType = KeyType.of(key);
+    if (!keyTypes.isEmpty() && !keyTypes.contains(keyType)) {
+      return false;
+    }
+    return processDefinitions.isEmpty() || processDefinitions.stream()
+        .map(keyType::getPrefix)
+        .anyMatch(prefix -> prefix != null && key.startsWith(prefix));
+  }
+
+  /**
+   * Prefixes to list, none of them is a prefix of another one. A single empty prefix stands for
+   * the whole key space, no prefixes mean that nothing can be selected.
+   */
+  public List<String> getListingPrefixes() {
+    var typePrefixes = new ArrayList<String>();
+    var types = keyTypes.isEmpty() ? EnumSet.allOf(KeyType.class) : keyTypes;
+    if (processDefinitions.isEmpty()) {
+      types.forEach(keyType -> typePrefixes.add(keyTypes.isEmpty() ? EVERYTHING
+          : keyType.getPrefix()));
+    } else {
+      types.forEach(keyType -> processDefinitions.stream()
+          .map(keyType::getPrefix)
+          .filter(Objects::nonNull)
+          .forEach(typePrefixes::add));
+    }
+    var prefixes = new TreeSet<String>();
+    if (includePrefixes.isEmpty()) {
+      prefixes.addAll(typePrefixes);
+    } else {
+      typePrefixes.forEach(typePrefix -> includePrefixes.forEach(includePrefix -> {
+        if (includePrefix.startsWith(typePrefix)) {
+          prefixes.add(includePrefix);
+        } else if (typePrefix.startsWith(includePrefix)) {
+          prefixes.add(typePrefix);
+        }
+      }));
+    }
+    return prefixes.stream()
+        .filter(prefix -> prefixes.headSet(prefix).stream().noneMatch(prefix::startsWith))
+        .filter(prefix -> excludePrefixes.stream().noneMatch(prefix::startsWith))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Lists the selected keys of the source. Pages contain selected objects only, empty pages are
+   * not passed to the consumer.
+   */
+  public void forEachPage(FormDataKeySource source, int pageSize,
+      Consumer<List<SourceObjectDto>> pageConsumer) {
+    if (!isSelective()) {
+      source.forEachPage(pageSize, pageConsumer);
+      return;
+    }
+    Consumer<List<SourceObjectDto>> selected = page -> {
+      var objects = page.stream()
+          .filter(object -> test(object.getKey()))
+          .collect(Collectors.toList());
+      if (!objects.isEmpty()) {
+        pageConsumer.accept(objects);
+      }
+    };
+    for (var prefix : getListingPrefixes()) {
+      if (prefix.isEmpty()) {
+        source.forEachPage(pageSize, selected);
+      } else {
+        source.forEachPage(prefix, pageSize, selected);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "key types " + keyTypes + ", process definitions " + processDefinitions
+        + ", include prefixes " + includePrefixes + ", exclude prefixes " + excludePrefixes;
+  }
+
+  private static List<String> values(List<String> values) {
+    if (values == null) {
+      return List.of();
+    }
+    return values.stream()
+        .filter(StringUtils::hasText)
+        .map(String::trim)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Accepts keys that belong to one shard of the key space. A key belongs to shard
+ * {@code crc32(key) mod shardCount}, so for the same shard count every key belongs to exactly
+ * one shard regardless of the JVM or the pod that evaluates it. Migrations running with the same
+ * shard count and different shard indexes never process or delete the same key.
+ */
+public class KeyShardFilter implements Predicate<String> {
+
+  private final int shardIndex;
+  private final int shardCount;
+
+  public KeyShardFilter(int shardIndex, int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+    }
+    if (shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException(String.format(
+          "Shard index must be in range [0, %d): %d", shardCount, shardIndex));
+    }
+    this.shardIndex = shardIndex;
+    this.shardCount = shardCount;
+  }
+
+  public boolean isSharded() {
+    return shardCount > 1;
+  }
+
+  @Override
+  public boolean test(String key) {
+    return shardCount == 1 || shardOf(key, shardCount) == shardIndex;
+  }
+
+  public static int shardOf(String key, int shardCount) {
+    var crc = new CRC32();
+    crc.update(key.getBytes(StandardCharsets.UTF_8));
+    return (int) (crc.getValue() % shardCount);
+  }
+
+  @Override
+  public String toString() {
+    return shardIndex + "/" + shardCount;
+  }
+}
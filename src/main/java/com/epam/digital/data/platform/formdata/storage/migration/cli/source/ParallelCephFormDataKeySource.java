@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Lists the ceph bucket with several ListObjectsV2 cursors at once. The key space is split into
+ * ranges at the known key prefixes and at their sub-prefixes discovered with a {@code /}
+ * delimiter; a prefix with too many sub-prefixes to discover in one request is split at hex
+ * digits instead, as process instance ids are UUIDs. Every range is walked by its own cursor
+ * starting after the lower bound of the range, and pages of all cursors are passed to the
+ * consumer on the calling thread in the order they arrive.
+ *
+ * <p>Ranges cover the whole key space, so keys outside of the known prefixes are listed too.
+ * Bounds are compared as strings, which matches the byte order of the listing for keys without
+ * supplementary characters.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ParallelCephFormDataKeySource implements FormDataKeySource {
+
+  private static final String DELIMITER = "/";
+  private static final String HEX_DIGITS = "0123456789abcdef";
+  private static final int DISCOVERY_MAX_KEYS = 1000;
+
+  private final AmazonS3 cephAmazonS3;
+  private final String bucket;
+  private final List<String> knownPrefixes;
+  private final int concurrency;
+
+  @Override
+  public void forEachPage(int pageSize, Consumer<List<SourceObjectDto>> pageConsumer) {
+    forEachPage("", pageSize, pageConsumer);
+  }
+
+  /**
+   * Splits the prefix at the known prefixes inside of it and their sub-prefixes, all cursors are
+   * limited to the prefix.
+   */
+  @Override
+  public void forEachPage(String prefix, int pageSize,
+      Consumer<List<SourceObjectDto>> pageConsumer) {
+    var bounds = findBounds(prefix);
+    log.info("Listing '{}' prefix of '{}' bucket in {} key ranges with {} concurrent cursors",
+        prefix, bucket, bounds.size() + 1, concurrency);
+    BlockingQueue<List<SourceObjectDto>> pages = new ArrayBlockingQueue<>(concurrency * 2);
+    var executor = Executors.newFixedThreadPool(concurrency,
+        new CustomizableThreadFactory("ceph-list-"));
+    try {
+      var cursors = IntStream.rangeClosed(0, bounds.size())
+          .mapToObj(i -> CompletableFuture.runAsync(() -> listRange(prefix,
+              i == 0 ? null : bounds.get(i - 1), i == bounds.size() ? null : bounds.get(i),
+              pageSize, page -> put(pages, page)), executor))
+          .toArray(CompletableFuture[]::new);
+      var listed = CompletableFuture.allOf(cursors);
+      while (!listed.isDone()) {
+        Stream.of(cursors).filter(CompletableFuture::isCompletedExceptionally)
+            .findFirst().ifPresent(CompletableFuture::join);
+        var page = poll(pages);
+        if (page != null) {
+          pageConsumer.accept(page);
+        }
+      }
+      listed.join();
+      var remaining = new ArrayList<List<SourceObjectDto>>();
+      pages.drainTo(remaining);
+      remaining.forEach(pageConsumer);
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return sorted bounds splitting the key space into ranges, every bound is the inclusive upper
+   * bound of one range and the exclusive lower bound of the next one
+   */
+  List<String> findBounds(String scope) {
+    var bounds = new TreeSet<String>();
+    var prefixes = knownPrefixes.stream()
+        .filter(prefix -> prefix.startsWith(scope))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (!scope.isEmpty() && prefixes.isEmpty()) {
+      prefixes.add(scope);
+    }
+    prefixes.forEach(prefix -> {
+      bounds.add(prefix);
+      var result = cephAmazonS3.listObjectsV2(new ListObjectsV2Request()
+          .withBucketName(bucket)
+          .withPrefix(prefix)
+          .withDelimiter(DELIMITER)
+          .withMaxKeys(DISCOVERY_MAX_KEYS));
+      if (result.isTruncated()) {
+        HEX_DIGITS.chars().forEach(digit -> bounds.add(prefix + (char) digit));
+      } else {
+        bounds.addAll(result.getCommonPrefixes());
+      }
+    });
+    return List.copyOf(bounds);
+  }
+
+  /**
+   * Lists keys of the scope after {@code lower} up to {@code upper} inclusive, {@code null} bounds
+   * are open.
+   */
+  private void listRange(String scope, String lower, String upper, int pageSize,
+      Consumer<List<SourceObjectDto>> sink) {
+    var request = new ListObjectsV2Request()
+        .withBucketName(bucket)
+        .withPrefix(scope.isEmpty() ? null : scope)
+        .withStartAfter(lower)
+        .withMaxKeys(pageSize);
+    ListObjectsV2Result result;
+    do {
+      result = cephAmazonS3.listObjectsV2(request);
+      var page = result.getObjectSummaries().stream()
+          .filter(summary -> upper == null || summary.getKey().compareTo(upper) <= 0)
+          .map(ParallelCephFormDataKeySource::toSourceObject)
+          .collect(Collectors.toList());
+      if (!page.isEmpty()) {
+        sink.accept(page);
+      }
+      if (page.size() < result.getObjectSummaries().size()) {
+        return;
+      }
+      request.setContinuationToken(result.getNextContinuationToken());
+    } while (result.isTruncated());
+  }
+
+  private static SourceObjectDto toSourceObject(S3ObjectSummary summary) {
+    return SourceObjectDto.builder()
+        .key(summary.getKey())
+        .size(summary.getSize())
+        .lastModified(summary.getLastModified() == null ? null
+            : summary.getLastModified().toInstant())
+        .build();
+  }
+
+  private static void put(BlockingQueue<List<SourceObjectDto>> pages,
+      List<SourceObjectDto> page) {
+    try {
+      pages.put(page);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while passing a listed page", exception);
+    }
+  }
+
+  private static List<SourceObjectDto> poll(BlockingQueue<List<SourceObjectDto>> pages) {
+    try {
+      return pages.poll(100, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a listed page", exception);
+    }
+  }
+}
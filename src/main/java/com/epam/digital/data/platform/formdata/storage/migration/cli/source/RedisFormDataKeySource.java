@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ScanOptions;
+
+/**
+ * Walks the index set redis keeps with the ids of all form data hashes of the keyspace with SSCAN
+ * cursors. Unlike KEYS the server is never blocked for the whole key set, every call inspects
+ * about COUNT elements. With a MATCH pattern elements outside of it are filtered out by the
+ * server and never sent over the network. Redis does not track modification time and size of the
+ * hashes, so both are unknown.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisFormDataKeySource implements FormDataKeySource {
+
+  private final RedisConnectionFactory redisConnectionFactory;
+  private final String keyspace;
+  /**
+   * COUNT hint of every SSCAN call, the page size if not positive.
+   */
+  private final int scanCount;
+  /**
+   * MATCH pattern of the scan, all elements if {@code null}.
+   */
+  private final String matchPattern;
+
+  /**
+   * Builds a MATCH pattern that accepts keys of all the formats: the common prefix of the text
+   * before the first placeholder of every format, followed by {@code *}.
+   */
+  public static String matchPattern(List<String> keyFormats) {
+    var prefix = keyFormats.stream()
+        .map(format -> format.substring(0, Math.max(format.indexOf("%s"), 0)))
+        .reduce(RedisFormDataKeySource::commonPrefix)
+        .orElse("");
+    return prefixPattern(prefix);
+  }
+
+  @Override
+  public void forEachPage(int pageSize, Consumer<List<SourceObjectDto>> pageConsumer) {
+    scan(matchPattern == null ? "*" : matchPattern, pageSize, pageConsumer);
+  }
+
+  /**
+   * Scans keys of the prefix only, the MATCH pattern of the prefix replaces the default one.
+   */
+  @Override
+  public void forEachPage(String prefix, int pageSize,
+      Consumer<List<SourceObjectDto>> pageConsumer) {
+    scan(prefixPattern(prefix), pageSize, pageConsumer);
+  }
+
+  private void scan(String pattern, int pageSize, Consumer<List<SourceObjectDto>> pageConsumer) {
+    var options = ScanOptions.scanOptions()
+        .count(scanCount > 0 ? scanCount : pageSize)
+        .match(pattern)
+        .build();
+    log.info("Scanning '{}' keyspace with COUNT {} and MATCH '{}'", keyspace, options.getCount(),
+        options.getPattern());
+    var keyspaceBytes = keyspace.getBytes(StandardCharsets.UTF_8);
+    // SSCAN may return an element more than once
+    var page = new LinkedHashSet<String>();
+    try (var connection = redisConnectionFactory.getConnection();
+        var cursor = connection.setCommands().sScan(keyspaceBytes, options)) {
+      while (cursor.hasNext()) {
+        page.add(new String(cursor.next(), StandardCharsets.UTF_8));
+        if (page.size() == pageSize) {
+          accept(page, pageConsumer);
+        }
+      }
+    }
+    if (!page.isEmpty()) {
+      accept(page, pageConsumer);
+    }
+  }
+
+  private void accept(LinkedHashSet<String> page, Consumer<List<SourceObjectDto>> pageConsumer) {
+    log.debug("Scanned {} keys from '{}' keyspace", page.size(), keyspace);
+    var objects = page.stream()
+        .map(key -> SourceObjectDto.builder().key(key).build())
+        .collect(Collectors.toCollection(ArrayList::new));
+    page.clear();
+    pageConsumer.accept(objects);
+  }
+
+  private static String prefixPattern(String prefix) {
+    return prefix.replaceAll("([*?\\[\\]\\\\])", "\\\\$1") + "*";
+  }
+
+  private static String commonPrefix(String first, String second) {
+    var length = 0;
+    while (length < Math.min(first.length(), second.length())
+        && first.charAt(length) == second.charAt(length)) {
+      length++;
+    }
+    return first.substring(0, length);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.target;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.StorageType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+
+/**
+ * Batch operations on a ceph target. Existence is checked with HEAD requests, so no form data is
+ * downloaded.
+ */
+public class CephTargetBatchOperations extends TargetBatchOperations {
+
+  private final AmazonS3 cephAmazonS3;
+  private final String bucket;
+
+  public CephTargetBatchOperations(FormDataStorageService cephFormDataStorageService,
+      AmazonS3 cephAmazonS3, String bucket, StorageThrottle throttle, ArgsDto args) {
+    super(cephFormDataStorageService, StorageType.CEPH, throttle, args);
+    this.cephAmazonS3 = cephAmazonS3;
+    this.bucket = bucket;
+  }
+
+  @Override
+  protected boolean exists(String key) {
+    return throttle.record(StorageType.CEPH.getExists(),
+        () -> cephAmazonS3.doesObjectExist(bucket, key));
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.target;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.StorageType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Batch operations on the target storage. Calls of a batch are dispatched together through the
+ * storage service of the target on a small pool shared by all batches, subclasses replace them
+ * with cheaper native commands where the storage has them.
+ */
+@Slf4j
+public class TargetBatchOperations {
+
+  private static final int MAX_DISPATCH_THREADS = 16;
+
+  private final FormDataStorageService targetFormDataStorageService;
+  private final StorageType targetType;
+  private final ExecutorService executor;
+  protected final StorageThrottle throttle;
+
+  public TargetBatchOperations(FormDataStorageService targetFormDataStorageService,
+      StorageType targetType, StorageThrottle throttle, ArgsDto args) {
+    this.targetFormDataStorageService = targetFormDataStorageService;
+    this.targetType = targetType;
+    this.throttle = throttle;
+    this.executor = Executors.newFixedThreadPool(dispatchThreads(args),
+        new CustomizableThreadFactory("target-write-"));
+  }
+
+  /**
+   * Checks which of the keys are present in the target storage.
+   */
+  public Set<String> findExisting(List<String> keys) {
+    Set<String> existing = ConcurrentHashMap.newKeySet();
+    dispatch(keys, key -> {
+      if (exists(key)) {
+        existing.add(key);
+      }
+    });
+    return existing;
+  }
+
+  /**
+   * Finds keys whose target data is not older than the source. The target keeps no modification
+   * time of the migrated source objects here, so every existing key is up to date.
+   */
+  public Set<String> findUpToDate(List<String> keys, Map<String, Instant> sourceModified) {
+    return findExisting(keys);
+  }
+
+  /**
+   * Remembers the modification time of the migrated source objects, if the target supports it.
+   */
+  public void recordSourceModified(Map<String, Instant> sourceModified) {
+    // not kept by default
+  }
+
+  /**
+   * Writes the whole batch at once. A failed write does not affect the other writes of the
+   * batch.
+   *
+   * @return failures by key, invalid form data fails with {@link IllegalArgumentException}
+   */
+  public Map<String, RuntimeException> putAll(Map<String, FormDataDto> formData) {
+    Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+    dispatch(List.copyOf(formData.keySet()), key -> put(key, formData.get(key), failures));
+    return failures;
+  }
+
+  @PreDestroy
+  public void preDestroy() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Number of storage calls of the batches dispatched at the same time.
+   */
+  public static int dispatchThreads(ArgsDto args) {
+    return Math.min(Math.max(args.getRedisBatchSize(), 1), MAX_DISPATCH_THREADS);
+  }
+
+  protected boolean exists(String key) {
+    return throttle.record(targetType.getGet(),
+        () -> targetFormDataStorageService.getFormData(key)).isPresent();
+  }
+
+  private void put(String key, FormDataDto formData, Map<String, RuntimeException> failures) {
+    try {
+      throttle.record(targetType.getPut(),
+          () -> targetFormDataStorageService.putFormData(key, formData));
+      log.debug("Migration for '{}' key finished", key);
+    } catch (IllegalArgumentException exception) {
+      log.error("Migration for '{}' key failed because of invalid data", key, exception);
+      failures.put(key, exception);
+    } catch (RuntimeException exception) {
+      failures.put(key, exception);
+    }
+  }
+
+  private void dispatch(List<String> keys, Consumer<String> call) {
+    var calls = keys.stream()
+        .map(key -> CompletableFuture.runAsync(() -> call.accept(key), executor))
+        .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(calls).join();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.throttle;
+
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limit of concurrent storage calls adjusted AIMD-style once per window: the limit is halved when
+ * the p99 latency of the window exceeds the target (more than 1% of calls were slower) or the
+ * error rate exceeds the allowed one, otherwise it grows by one up to the maximum.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimit {
+
+  private static final double P99_SLOW_CALLS_RATE = 0.01;
+
+  private final int maxLimit;
+  private final long latencyTargetNanos;
+  private final double maxErrorRate;
+  private final long windowNanos;
+
+  private int limit;
+  private int inFlight;
+  private long windowStart = System.nanoTime();
+  private int calls;
+  private int slowCalls;
+  private int errors;
+
+  public AdaptiveConcurrencyLimit(int maxLimit, long latencyTargetNanos, double maxErrorRate,
+      long windowNanos) {
+    this.maxLimit = maxLimit;
+    this.latencyTargetNanos = latencyTargetNanos;
+    this.maxErrorRate = maxErrorRate;
+    this.windowNanos = windowNanos;
+    this.limit = maxLimit;
+  }
+
+  public synchronized void acquire() {
+    try {
+      while (inFlight >= limit) {
+        wait();
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a concurrency limit",
+          exception);
+    }
+    inFlight++;
+  }
+
+  public synchronized void release(long latencyNanos, boolean failed) {
+    inFlight--;
+    calls++;
+    if (latencyNanos > latencyTargetNanos) {
+      slowCalls++;
+    }
+    if (failed) {
+      errors++;
+    }
+    var now = System.nanoTime();
+    if (now - windowStart >= windowNanos) {
+      adjust();
+      windowStart = now;
+      calls = 0;
+      slowCalls = 0;
+      errors = 0;
+    }
+    notifyAll();
+  }
+
+  public synchronized int getLimit() {
+    return limit;
+  }
+
+  private void adjust() {
+    var previous = limit;
+    if (slowCalls > calls * P99_SLOW_CALLS_RATE || errors > calls * maxErrorRate) {
+      limit = Math.max(1, limit / 2);
+    } else if (limit < maxLimit) {
+      limit++;
+    }
+    if (limit != previous) {
+      log.info("Storage concurrency limit changed from {} to {}: {} calls, {} slower than {} ms, "
+              + "{} failed", previous, limit, calls, slowCalls,
+          TimeUnit.NANOSECONDS.toMillis(latencyTargetNanos), errors);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.throttle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth rate limiter: each acquisition reserves the next free time slot, so permits are handed
+ * out evenly at the configured rate instead of in bursts. Permits may be acquired after the work
+ * is done, the debt then delays the following callers.
+ */
+public class RateLimiter {
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final double nanosPerPermit;
+  private long nextFreeNanos = System.nanoTime();
+
+  public RateLimiter(double permitsPerSecond) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+    }
+    this.nanosPerPermit = NANOS_PER_SECOND / permitsPerSecond;
+  }
+
+  public void acquire(long permits) {
+    var waitNanos = reserve(permits);
+    if (waitNanos <= 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a rate limit", exception);
+    }
+  }
+
+  synchronized long reserve(long permits) {
+    var now = System.nanoTime();
+    var start = Math.max(now, nextFreeNanos);
+    nextFreeNanos = start + (long) (permits * nanosPerPermit);
+    return start - now;
+  }
+}
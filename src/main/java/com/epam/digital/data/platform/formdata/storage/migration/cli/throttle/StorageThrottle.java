@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.throttle;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.retry.CircuitBreaker;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.retry.RetryPolicy;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for storage calls: retries failed calls, guards each storage with a circuit
+ * breaker, applies the ops/sec limit and the adaptive concurrency limit and records the call
+ * latency. Every limit is disabled unless configured.
+ */
+@Component
+public class StorageThrottle {
+
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final MigrationMetrics metrics;
+  private final RateLimiter operationLimiter;
+  private final RateLimiter byteLimiter;
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
+  private final RetryPolicy retryPolicy;
+  private final Map<String, CircuitBreaker> circuitBreakers;
+
+  public StorageThrottle(ArgsDto args, MigrationMetrics metrics) {
+    this.metrics = metrics;
+    this.operationLimiter = args.getMaxOpsPerSecond() > 0
+        ? new RateLimiter(args.getMaxOpsPerSecond()) : null;
+    this.byteLimiter = args.getMaxBytesPerSecond() > 0
+        ? new RateLimiter(args.getMaxBytesPerSecond()) : null;
+    this.concurrencyLimit = args.getLatencyTargetMs() > 0
+        ? new AdaptiveConcurrencyLimit(maxConcurrency(args),
+        TimeUnit.MILLISECONDS.toNanos(args.getLatencyTargetMs()), args.getMaxErrorRate(),
+        WINDOW_NANOS)
+        : null;
+    this.retryPolicy = new RetryPolicy(args.getRetryAttempts(),
+        TimeUnit.MILLISECONDS.toNanos(args.getRetryBackoffMs()),
+        TimeUnit.MILLISECONDS.toNanos(args.getRetryMaxBackoffMs()));
+    this.circuitBreakers = Arrays.stream(Operation.values())
+        .map(Operation::getBackend)
+        .distinct()
+        .collect(Collectors.toMap(Function.identity(),
+            backend -> new CircuitBreaker(backend, args.getCircuitBreakerThreshold(),
+                TimeUnit.MILLISECONDS.toNanos(args.getCircuitBreakerOpenMs()))));
+  }
+
+  public <T> T record(Operation operation, Supplier<T> call) {
+    var breaker = circuitBreakers.get(operation.getBackend());
+    return retryPolicy.execute(operation.getTag(),
+        () -> breaker.call(() -> throttle(operation, call)));
+  }
+
+  public void record(Operation operation, Runnable call) {
+    record(operation, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  /**
+   * Accounts the bytes of an object before it is written, the caller is delayed by the debt of
+   * the previous objects.
+   */
+  public void acquireBytes(long bytes) {
+    if (byteLimiter != null && bytes > 0) {
+      byteLimiter.acquire(bytes);
+    }
+  }
+
+  private <T> T throttle(Operation operation, Supplier<T> call) {
+    if (operationLimiter != null) {
+      operationLimiter.acquire(1);
+    }
+    if (concurrencyLimit == null) {
+      return metrics.record(operation, call);
+    }
+    concurrencyLimit.acquire();
+    var start = System.nanoTime();
+    var failed = true;
+    try {
+      var result = metrics.record(operation, call);
+      failed = false;
+      return result;
+    } catch (IllegalArgumentException exception) {
+      // invalid form data, not a sign of storage overload
+      failed = false;
+      throw exception;
+    } finally {
+      concurrencyLimit.release(System.nanoTime() - start, failed);
+    }
+  }
+
+  /**
+   * Storage calls of the migration workers and of the separate write stage run at the same time,
+   * batch calls are dispatched on a pool of their own.
+   */
+  private static int maxConcurrency(ArgsDto args) {
+    var workers = Math.max(args.getConcurrency(), 1) + Math.max(args.getWriteConcurrency(), 0);
+    var batchCalls = args.getRedisBatchSize() > 0 ? TargetBatchOperations.dispatchThreads(args)
+        : 0;
+    return Math.max(workers, Math.max(batchCalls, args.getDeleteConcurrency()));
+  }
+}
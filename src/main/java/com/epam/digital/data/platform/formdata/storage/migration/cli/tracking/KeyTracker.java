@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.tracking;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Set of listed keys with a thread-safe mark per key, e.g. whether the key was processed. Keys are
+ * kept in a sorted array that references the listed strings, and marks are bits indexed by the
+ * position of the key found by binary search. Tracking a key takes a reference and a bit instead
+ * of a hash set entry per key and per tracked state, and sorted keys of the same prefix are
+ * processed together.
+ */
+public class KeyTracker {
+
+  private final String[] keys;
+  private final AtomicLongArray marks;
+
+  /**
+   * @param keys listed keys, duplicates are tracked once
+   */
+  public KeyTracker(Stream<String> keys) {
+    var sorted = keys.toArray(String[]::new);
+    Arrays.parallelSort(sorted);
+    var distinct = 0;
+    for (var key : sorted) {
+      if (distinct == 0 || !sorted[distinct - 1].equals(key)) {
+        sorted[distinct++] = key;
+      }
+    }
+    this.keys = distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    this.marks = new AtomicLongArray((distinct + Long.SIZE - 1) / Long.SIZE);
+  }
+
+  public int size() {
+    return keys.length;
+  }
+
+  public Stream<String> stream() {
+    return Arrays.stream(keys);
+  }
+
+  /**
+   * Marks the key, keys that are not tracked are ignored.
+   */
+  public void mark(String key) {
+    var index = Arrays.binarySearch(keys, key);
+    if (index >= 0) {
+      marks.getAndAccumulate(index / Long.SIZE, 1L << index, (word, bit) -> word | bit);
+    }
+  }
+
+  public boolean isMarked(String key) {
+    var index = Arrays.binarySearch(keys, key);
+    return index >= 0 && isMarked(index);
+  }
+
+  public Stream<String> marked() {
+    return IntStream.range(0, keys.length)
+        .filter(this::isMarked)
+        .mapToObj(index -> keys[index]);
+  }
+
+  public Stream<String> unmarked() {
+    return IntStream.range(0, keys.length)
+        .filter(index -> !isMarked(index))
+        .mapToObj(index -> keys[index]);
+  }
+
+  private boolean isMarked(int index) {
+    return (marks.get(index / Long.SIZE) & 1L << index) != 0;
+  }
+}
@@ -14,20 +14,154 @@
  * limitations under the License.
  */
 
+
 package com.epam.digital.data.platform.formdata.storage.migration.cli.validator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+/**
+ * Checks keys against the list of key patterns. Patterns built from key formats, i.e. literal
+ * parts joined with {@code (.*)} groups, are matched by plain string operations on the literal
+ * parts, any other pattern is matched as a regular expression after checking its literal prefix.
+ */
 @Component
-@RequiredArgsConstructor
 public class FormDataKeyValidator {
 
+  private static final String ANY = "(.*)";
+  private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
   public final List<Pattern> patterns;
+  private final Predicate<String>[] matchers;
+  private final Pattern[] matcherPatterns;
+
+  @SuppressWarnings("unchecked")
+  public FormDataKeyValidator(List<Pattern> patterns) {
+    this.patterns = patterns;
+    var literalMatchers = new ArrayList<Pattern>();
+    var regexMatchers = new ArrayList<Pattern>();
+    patterns.forEach(pattern -> (isLiteralSegments(pattern) ? literalMatchers : regexMatchers)
+        .add(pattern));
+    literalMatchers.addAll(regexMatchers);
+    this.matcherPatterns = literalMatchers.toArray(Pattern[]::new);
+    this.matchers = literalMatchers.stream()
+        .map(FormDataKeyValidator::compile)
+        .toArray(Predicate[]::new);
+  }
 
   public boolean isValid(String key) {
-    return patterns.stream().anyMatch(pattern -> pattern.matcher(key).matches());
+    return findPattern(key) != null;
+  }
+
+  /**
+   * Returns the pattern the key matches or {@code null} if the key is invalid.
+   */
+  public Pattern findPattern(String key) {
+    for (int i = 0; i < matchers.length; i++) {
+      if (matchers[i].test(key)) {
+        return matcherPatterns[i];
+      }
+    }
+    return null;
+  }
+
+  private static boolean isLiteralSegments(Pattern pattern) {
+    var segments = pattern.pattern().split(Pattern.quote(ANY), -1);
+    return pattern.flags() == 0 && segments.length > 1 && Arrays.stream(segments)
+        .noneMatch(FormDataKeyValidator::containsRegexMetaCharacters);
+  }
+
+  private static Predicate<String> compile(Pattern pattern) {
+    if (isLiteralSegments(pattern)) {
+      return new LiteralSegmentsMatcher(pattern.pattern().split(Pattern.quote(ANY), -1));
+    }
+    var prefix = pattern.flags() == 0 ? literalPrefix(pattern.pattern()) : "";
+    return new PrefixedRegexMatcher(pattern, prefix);
+  }
+
+  private static boolean containsRegexMetaCharacters(String segment) {
+    return segment.chars().anyMatch(c -> REGEX_META_CHARACTERS.indexOf(c) >= 0);
+  }
+
+  private static String literalPrefix(String regex) {
+    if (regex.indexOf('|') >= 0) {
+      return "";
+    }
+    var end = 0;
+    while (end < regex.length() && REGEX_META_CHARACTERS.indexOf(regex.charAt(end)) < 0) {
+      end++;
+    }
+    // a quantifier applies to the preceding character, so it is not a part of the literal prefix
+    if (end < regex.length() && end > 0 && "?*+{".indexOf(regex.charAt(end)) >= 0) {
+      end--;
+    }
+    return regex.substring(0, end);
+  }
+
+  /**
+   * Equivalent of a {@code literal(.*)literal...(.*)literal} regex: the key has to start with the
+   * first literal, end with the last one and contain the others in order in between.
+   */
+  private static class LiteralSegmentsMatcher implements Predicate<String> {
+
+    private final String first;
+    private final String[] middle;
+    private final String last;
+    private final int minLength;
+
+    LiteralSegmentsMatcher(String[] segments) {
+      this.first = segments[0];
+      this.middle = Arrays.copyOfRange(segments, 1, segments.length - 1);
+      this.last = segments[segments.length - 1];
+      this.minLength = Arrays.stream(segments).mapToInt(String::length).sum();
+    }
+
+    @Override
+    public boolean test(String key) {
+      if (key.length() < minLength || !key.startsWith(first) || !key.endsWith(last)
+          || containsLineTerminator(key)) {
+        return false;
+      }
+      var position = first.length();
+      for (var segment : middle) {
+        var index = key.indexOf(segment, position);
+        if (index < 0) {
+          return false;
+        }
+        position = index + segment.length();
+      }
+      return position <= key.length() - last.length();
+    }
+
+    // '.' of the original regex does not match line terminators
+    private static boolean containsLineTerminator(String key) {
+      for (int i = 0; i < key.length(); i++) {
+        var c = key.charAt(i);
+        if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class PrefixedRegexMatcher implements Predicate<String> {
+
+    private final Pattern pattern;
+    private final String prefix;
+
+    PrefixedRegexMatcher(Pattern pattern, String prefix) {
+      this.pattern = pattern;
+      this.prefix = prefix;
+    }
+
+    @Override
+    public boolean test(String key) {
+      return key.startsWith(prefix) && pattern.matcher(key).matches();
+    }
   }
 }
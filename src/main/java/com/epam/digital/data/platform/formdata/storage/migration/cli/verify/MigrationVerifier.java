@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.verify;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads migrated form data back from the target and compares its SHA-256 checksum with the checksum
+ * of the form data read from the source. The source side costs no extra ceph reads, as the form
+ * data read for the migration is still in memory.
+ *
+ * <p>Checksums are computed over a canonical JSON tree of the form data: object fields are ordered
+ * by name and numbers are compared by value, so neither the field order nor the numeric types
+ * restored by the target storage (e.g. {@code 1} read back as {@code 1.0}) cause false mismatches.
+ */
+@Slf4j
+@Component
+public class MigrationVerifier {
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private final ObjectMapper objectMapper;
+  private final FormDataStorageService targetFormDataStorageService;
+  private final Operation targetGet;
+  private final StorageThrottle throttle;
+  private final ExecutorService readExecutor;
+
+  public MigrationVerifier(ObjectMapper objectMapper,
+      FormDataStorageService targetFormDataStorageService, StorageThrottle throttle,
+      ArgsDto args) {
+    this.objectMapper = objectMapper;
+    this.targetFormDataStorageService = targetFormDataStorageService;
+    this.targetGet = args.getDirection().getTarget().getGet();
+    this.throttle = throttle;
+    this.readExecutor = Executors.newFixedThreadPool(TargetBatchOperations.dispatchThreads(args),
+        new CustomizableThreadFactory("verify-"));
+  }
+
+  /**
+   * Returns {@code true} if the target holds the same content as the source form data.
+   */
+  public boolean verify(String key, FormDataDto source) {
+    var target = throttle.record(targetGet,
+        () -> targetFormDataStorageService.getFormData(key));
+    var matches = target.isPresent()
+        && Arrays.equals(checksum(source), checksum(target.get()));
+    if (!matches) {
+      log.error("Verification of '{}' key failed: {}", key,
+          target.isPresent() ? "content differs from source" : "not found in target");
+    }
+    return matches;
+  }
+
+  /**
+   * Verifies the whole batch, target reads of the batch are dispatched together. A key that
+   * cannot be read back is treated as failed.
+   *
+   * @return keys that failed the verification
+   */
+  public Set<String> verifyAll(Map<String, FormDataDto> sources) {
+    Set<String> mismatched = ConcurrentHashMap.newKeySet();
+    var reads = sources.entrySet().stream()
+        .map(entry -> CompletableFuture.runAsync(
+            () -> verify(entry.getKey(), entry.getValue(), mismatched), readExecutor))
+        .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(reads).join();
+    return mismatched;
+  }
+
+  private void verify(String key, FormDataDto source, Set<String> mismatched) {
+    try {
+      if (!verify(key, source)) {
+        mismatched.add(key);
+      }
+    } catch (RuntimeException exception) {
+      log.error("Verification of '{}' key failed", key, exception);
+      mismatched.add(key);
+    }
+  }
+
+  byte[] checksum(FormDataDto formData) {
+    try (var out = new DigestOutputStream(OutputStream.nullOutputStream(), newDigest())) {
+      objectMapper.writeValue(out, canonical(objectMapper.valueToTree(formData)));
+      return out.getMessageDigest().digest();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private JsonNode canonical(JsonNode node) {
+    var nodeFactory = objectMapper.getNodeFactory();
+    if (node.isObject()) {
+      var fields = new TreeMap<String, JsonNode>();
+      node.fields().forEachRemaining(field -> fields.put(field.getKey(), field.getValue()));
+      var sorted = nodeFactory.objectNode();
+      fields.forEach((name, value) -> sorted.set(name, canonical(value)));
+      return sorted;
+    }
+    if (node.isArray()) {
+      var array = nodeFactory.arrayNode(node.size());
+      node.forEach(element -> array.add(canonical(element)));
+      return array;
+    }
+    if (node.isNumber()) {
+      return nodeFactory.numberNode(node.decimalValue().stripTrailingZeros());
+    }
+    return node;
+  }
+
+  @PreDestroy
+  public void preDestroy() {
+    readExecutor.shutdownNow();
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(ALGORITHM + " is not available", exception);
+    }
+  }
+}
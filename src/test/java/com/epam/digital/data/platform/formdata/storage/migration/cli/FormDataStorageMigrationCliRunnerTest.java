@@ -16,26 +16,67 @@
 
 package com.epam.digital.data.platform.formdata.storage.migration.cli;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.direction.MigrationDirection;
 import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.KeyType;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.plan.MigrationPlanner;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.policy.ConflictPolicy;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeyShardFilter;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
 import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.verify.MigrationVerifier;
 import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
 import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
 import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
 import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -46,14 +87,22 @@ class FormDataStorageMigrationCliRunnerTest {
   private FormDataStorageService cephStorage;
   @Mock
   private FormDataStorageService redisStorage;
+  @Mock
+  private FormDataKeySource keySource;
+  @Mock
+  private TargetBatchOperations batchOperations;
+  @Mock
+  private MigrationPlanner planner;
 
   private final FormDataKeyValidator validator = new FormDataKeyValidator(ValidationConfig.PATTERNS);
+  private final MigrationMetrics metrics = new MigrationMetrics(
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
   private final FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
 
   @Test
   void shouldMigrateData() {
     var args = buildArgs(true, true);
-    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage);
+    var runner = runner(args);
     var key = keyProvider.generateKey("piid", "taskid");
     var keys = Set.of(key, "invalidKey");
     var formData = FormDataDto.builder()
@@ -72,7 +121,7 @@ class FormDataStorageMigrationCliRunnerTest {
   @Test
   void shouldMigrateAndDeleteOnlyValid() {
     var args = buildArgs(true, false);
-    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage);
+    var runner = runner(args);
     var key = keyProvider.generateKey("piid", "taskid");
     var keys = Set.of(key, "invalidKey");
     var formData = FormDataDto.builder()
@@ -91,7 +140,7 @@ class FormDataStorageMigrationCliRunnerTest {
   @Test
   void shouldMigrateWhenExpectedException() {
     var args = buildArgs(true, true);
-    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage);
+    var runner = runner(args);
     var failKey = keyProvider.generateKey("piid", "failTaskid");
     var keys = Set.of(failKey);
     var formData = FormDataDto.builder()
@@ -110,7 +159,7 @@ class FormDataStorageMigrationCliRunnerTest {
   @Test
   void shouldNotMigrateWhenRandomException() {
     var args = buildArgs(false, false);
-    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage);
+    var runner = runner(args);
     var failKey = keyProvider.generateKey("piid", "failTaskid");
     var keys = Set.of(failKey);
     var formData = FormDataDto.builder()
@@ -127,7 +176,7 @@ class FormDataStorageMigrationCliRunnerTest {
   @Test
   void shouldNotMigrateWhenPresentInRedis() {
     var args = buildArgs(true, true);
-    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage);
+    var runner = runner(args);
     var key = keyProvider.generateKey("piid", "taskid");
     var redisKey = keyProvider.generateKey("piid1", "taskid2");
     var keys = Set.of(redisKey, key, "invalidKey");
@@ -147,6 +196,804 @@ class FormDataStorageMigrationCliRunnerTest {
     verify(cephStorage, times(1)).delete(keys);
   }
 
+  @Test
+  void shouldMigrateDataConcurrently() {
+    var args = buildArgs(true, false);
+    args.setConcurrency(4);
+    var runner = runner(args);
+    var redisKey = keyProvider.generateKey("redisPiid", "taskid");
+    var keys = new HashSet<>(Set.of(redisKey, "invalidKey"));
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    for (int i = 0; i < 99; i++) {
+      var key = keyProvider.generateKey("piid" + i, "taskid");
+      keys.add(key);
+      when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+    }
+    when(redisStorage.getFormData(any())).thenAnswer(invocation ->
+        redisKey.equals(invocation.getArgument(0)) ? Optional.of(formData) : Optional.empty());
+    when(cephStorage.keys()).thenReturn(keys);
+
+    runner.run();
+
+    var expectedProcessed = new HashSet<>(keys);
+    expectedProcessed.remove("invalidKey");
+    expectedProcessed.remove(redisKey);
+    verify(redisStorage, times(99)).putFormData(any(), any());
+    verify(redisStorage, times(0)).putFormData(redisKey, formData);
+    verify(cephStorage, times(1)).delete(expectedProcessed);
+  }
+
+  @Test
+  void shouldWriteOnSeparateWriteStage(@TempDir Path tempDir) throws IOException {
+    var deadLetterFile = tempDir.resolve("dead-letter");
+    var args = buildArgs(true, true);
+    args.setConcurrency(2);
+    args.setWriteConcurrency(3);
+    args.setDeadLetterFile(deadLetterFile.toString());
+    var runner = runner(args);
+    var failKey = keyProvider.generateKey("taskid", "failPiid");
+    var keys = IntStream.range(0, 50)
+        .mapToObj(i -> keyProvider.generateKey("taskid", "piid" + i))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    keys.add(failKey);
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+
+    when(cephStorage.keys()).thenReturn(keys);
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+    when(redisStorage.getFormData(any())).thenReturn(Optional.empty());
+    doAnswer(invocation -> {
+      writerThreads.add(Thread.currentThread().getName());
+      if (failKey.equals(invocation.getArgument(0))) {
+        throw new IllegalStateException("error message");
+      }
+      return null;
+    }).when(redisStorage).putFormData(any(), any());
+
+    runner.run();
+
+    var migrated = new HashSet<>(keys);
+    migrated.remove(failKey);
+    assertThat(writerThreads).allMatch(name -> name.startsWith("write-"));
+    assertThat(Files.readAllLines(deadLetterFile)).containsExactly(failKey);
+    assertThat(metrics.getCount(KeyStatus.MIGRATED)).isEqualTo(50);
+    assertThat(metrics.getKeyDuration().count()).isEqualTo(50);
+    verify(cephStorage).delete(migrated);
+  }
+
+  @Test
+  void shouldNotDeleteWhenRandomExceptionInConcurrentMode() {
+    var args = buildArgs(true, true);
+    args.setConcurrency(4);
+    var runner = runner(args);
+    var failKey = keyProvider.generateKey("piid", "failTaskid");
+    var keys = Set.of(failKey);
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(keys);
+    when(cephStorage.getFormData(failKey)).thenReturn(Optional.of(formData));
+    doThrow(new IllegalStateException("error message")).when(redisStorage).putFormData(any(), any());
+
+    assertThrows(IllegalStateException.class, runner::run);
+    verify(cephStorage, never()).delete(any());
+  }
+
+  @Test
+  void shouldMigrateDataByPages() {
+    var args = buildArgs(true, false);
+    args.setPageSize(2);
+    var runner = runner(args);
+    var firstKey = keyProvider.generateKey("piid1", "taskid");
+    var secondKey = keyProvider.generateKey("piid2", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(sourceObject(firstKey), sourceObject("invalidKey")));
+      consumer.accept(List.of(sourceObject(secondKey)));
+      return null;
+    }).when(keySource).forEachPage(eq(2), any());
+    when(cephStorage.getFormData(firstKey)).thenReturn(Optional.of(formData));
+    when(cephStorage.getFormData(secondKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(cephStorage, never()).keys();
+    verify(redisStorage, times(1)).putFormData(firstKey, formData);
+    verify(redisStorage, times(1)).putFormData(secondKey, formData);
+    verify(cephStorage, times(1)).delete(Set.of(firstKey));
+    verify(cephStorage, times(1)).delete(Set.of(secondKey));
+  }
+
+  @Test
+  void shouldMigrateDataInRedisBatches() {
+    var args = buildArgs(true, false);
+    args.setRedisBatchSize(2);
+    var runner = runner(args);
+    var firstKey = keyProvider.generateKey("piid1", "taskid");
+    var secondKey = keyProvider.generateKey("piid2", "taskid");
+    var redisKey = keyProvider.generateKey("piid3", "taskid");
+    var keys = new LinkedHashSet<>(List.of(firstKey, secondKey, redisKey, "invalidKey"));
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(keys);
+    when(batchOperations.findExisting(List.of(firstKey, secondKey))).thenReturn(Set.of());
+    when(batchOperations.findExisting(List.of(redisKey))).thenReturn(Set.of(redisKey));
+    when(cephStorage.getFormData(firstKey)).thenReturn(Optional.of(formData));
+    when(cephStorage.getFormData(secondKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(batchOperations).putAll(Map.of(firstKey, formData, secondKey, formData));
+    verify(batchOperations).putAll(Map.of());
+    verify(redisStorage, never()).getFormData(any());
+    verify(cephStorage, times(1)).delete(Set.of(firstKey, secondKey));
+  }
+
+  @Test
+  void shouldWriteLargePayloadsSeparatelyAndRecordSizes() {
+    var args = buildArgs(false, false);
+    args.setRedisBatchSize(10);
+    args.setPageSize(10);
+    args.setLargePayloadBytes(1000);
+    var runner = runner(args);
+    var smallKey = keyProvider.generateKey("piid", "taskid");
+    var largeKey = keyProvider.generateBatchSystemSignatureKey("piid", 1);
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(smallKey).size(100).build(),
+          SourceObjectDto.builder().key(largeKey).size(5000).build()));
+      return null;
+    }).when(keySource).forEachPage(eq(10), any());
+    when(batchOperations.findExisting(List.of(largeKey, smallKey))).thenReturn(Set.of());
+    when(cephStorage.getFormData(smallKey)).thenReturn(Optional.of(formData));
+    when(cephStorage.getFormData(largeKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(batchOperations).putAll(Map.of(smallKey, formData));
+    verify(batchOperations).putAll(Map.of(largeKey, formData));
+    assertThat(metrics.getPayloadSizes(KeyType.TASK).totalAmount()).isEqualTo(100);
+    assertThat(metrics.getPayloadSizes(KeyType.BATCH_SYSTEM_SIGNATURE).totalAmount())
+        .isEqualTo(5000);
+    assertThat(metrics.getCount(KeyStatus.MIGRATED)).isEqualTo(2);
+  }
+
+  @Test
+  void shouldWriteLargePayloadsUpToConfiguredConcurrency() {
+    var args = buildArgs(false, false);
+    args.setConcurrency(2);
+    args.setPageSize(10);
+    args.setLargePayloadBytes(1000);
+    args.setLargePayloadConcurrency(2);
+    args.setConflictPolicy(ConflictPolicy.OVERWRITE);
+    var runner = runner(args);
+    var firstKey = keyProvider.generateKey("piid1", "taskid");
+    var secondKey = keyProvider.generateKey("piid2", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    var writing = new CountDownLatch(2);
+    var overlapped = new AtomicBoolean(true);
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(firstKey).size(5000).build(),
+          SourceObjectDto.builder().key(secondKey).size(5000).build()));
+      return null;
+    }).when(keySource).forEachPage(eq(10), any());
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+    doAnswer(invocation -> {
+      writing.countDown();
+      if (!writing.await(5, TimeUnit.SECONDS)) {
+        overlapped.set(false);
+      }
+      return null;
+    }).when(redisStorage).putFormData(any(), eq(formData));
+
+    runner.run();
+
+    assertThat(overlapped).isTrue();
+    assertThat(metrics.getCount(KeyStatus.MIGRATED)).isEqualTo(2);
+  }
+
+  @Test
+  void shouldResumeWithoutStorageCallsForCompletedKeys(@TempDir Path tempDir) throws IOException {
+    var migratedKey = keyProvider.generateKey("piid1", "taskid");
+    var skippedKey = keyProvider.generateKey("piid2", "taskid");
+    var failedKey = keyProvider.generateKey("piid3", "taskid");
+    var journal = tempDir.resolve("journal");
+    Files.writeString(journal, String.format("MIGRATED %s%nSKIPPED %s%nFAILED %s%n",
+        migratedKey, skippedKey, failedKey));
+    var args = buildArgs(true, false);
+    args.setJournalFile(journal.toString());
+    args.setResume(true);
+    var runner = runner(args);
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(Set.of(migratedKey, skippedKey, failedKey));
+    when(cephStorage.getFormData(failedKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(redisStorage).getFormData(failedKey);
+    verify(redisStorage).putFormData(failedKey, formData);
+    verify(redisStorage, never()).getFormData(migratedKey);
+    verify(redisStorage, never()).getFormData(skippedKey);
+    verify(cephStorage, never()).getFormData(migratedKey);
+    verify(cephStorage, times(1)).delete(Set.of(migratedKey, failedKey));
+    assertThat(Files.readAllLines(journal)).contains("MIGRATED " + failedKey,
+        "DELETED " + migratedKey, "DELETED " + failedKey);
+  }
+
+  @Test
+  void shouldRetryTransientFailure() {
+    var args = buildArgs(true, false);
+    args.setRetryAttempts(3);
+    args.setRetryBackoffMs(1);
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(Set.of(key));
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+    doThrow(new IllegalStateException("failover")).doNothing()
+        .when(redisStorage).putFormData(key, formData);
+
+    runner.run();
+
+    verify(redisStorage, times(2)).putFormData(key, formData);
+    verify(cephStorage, times(1)).delete(Set.of(key));
+  }
+
+  @Test
+  void shouldWriteFailedKeysToDeadLetterFile(@TempDir Path tempDir) throws IOException {
+    var deadLetterFile = tempDir.resolve("dead-letter");
+    var args = buildArgs(true, true);
+    args.setDeadLetterFile(deadLetterFile.toString());
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid1", "taskid");
+    var failKey = keyProvider.generateKey("piid2", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(new LinkedHashSet<>(List.of(key, failKey)));
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+    doAnswer(invocation -> {
+      if (failKey.equals(invocation.getArgument(0))) {
+        throw new IllegalStateException("error message");
+      }
+      return null;
+    }).when(redisStorage).putFormData(any(), any());
+
+    runner.run();
+
+    assertThat(Files.readAllLines(deadLetterFile)).containsExactly(failKey);
+    verify(cephStorage, times(1)).delete(Set.of(key));
+    assertThat(metrics.getCount(KeyStatus.FAILED)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRetryOnlyKeysFromDeadLetterFile(@TempDir Path tempDir) throws IOException {
+    var key = keyProvider.generateKey("piid", "taskid");
+    var deadLetterFile = tempDir.resolve("dead-letter");
+    Files.writeString(deadLetterFile, key + System.lineSeparator());
+    var args = buildArgs(true, false);
+    args.setDeadLetterFile(deadLetterFile.toString());
+    args.setRetryFailed(true);
+    var runner = runner(args);
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(cephStorage, never()).keys();
+    verify(redisStorage).putFormData(key, formData);
+    verify(cephStorage, times(1)).delete(Set.of(key));
+    assertThat(Files.readAllLines(deadLetterFile)).isEmpty();
+  }
+
+  @Test
+  void shouldRequireDeadLetterFileToRetryFailedKeys() {
+    var args = buildArgs(false, false);
+    args.setRetryFailed(true);
+    var runner = runner(args);
+
+    assertThrows(IllegalStateException.class, runner::run);
+  }
+
+  @Test
+  void shouldMigrateOnlyObjectsModifiedSinceWatermark(@TempDir Path tempDir) throws IOException {
+    var watermark = Instant.parse("2022-06-01T00:00:00Z");
+    var watermarkFile = tempDir.resolve("watermark");
+    Files.writeString(watermarkFile, watermark.toString());
+    var args = buildArgs(true, false);
+    args.setDeltaWatermarkFile(watermarkFile.toString());
+    var runner = runner(args);
+    var oldKey = keyProvider.generateKey("piid1", "taskid");
+    var newKey = keyProvider.generateKey("piid2", "taskid");
+    var newModified = watermark.plus(Duration.ofDays(1));
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(oldKey).lastModified(watermark.minusSeconds(1)).build(),
+          SourceObjectDto.builder().key(newKey).lastModified(newModified).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(cephStorage.getFormData(newKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(cephStorage, never()).getFormData(oldKey);
+    verify(redisStorage).putFormData(newKey, formData);
+    verify(cephStorage, times(1)).delete(Set.of(newKey));
+    assertThat(Instant.parse(Files.readString(watermarkFile))).isEqualTo(newModified);
+  }
+
+  @Test
+  void shouldUpdateModifiedKeyPresentInTargetInDeltaMode(@TempDir Path tempDir)
+      throws IOException {
+    var watermark = Instant.parse("2022-06-01T00:00:00Z");
+    var watermarkFile = tempDir.resolve("watermark");
+    Files.writeString(watermarkFile, watermark.toString());
+    var args = buildArgs(true, true);
+    args.setDeltaWatermarkFile(watermarkFile.toString());
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid", "taskid");
+    var modified = watermark.plus(Duration.ofDays(1));
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "Bob")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(SourceObjectDto.builder().key(key).lastModified(modified).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findUpToDate(List.of(key), Map.of(key, modified))).thenReturn(Set.of());
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(redisStorage, never()).getFormData(any());
+    verify(redisStorage).putFormData(key, formData);
+    verify(batchOperations).recordSourceModified(Map.of(key, modified));
+    verify(cephStorage).delete(Set.of(key));
+  }
+
+  @Test
+  void shouldRejectSkipPolicyInDeltaMode() {
+    var args = buildArgs(true, true);
+    args.setDeltaWatermarkFile("watermark");
+    args.setConflictPolicy(ConflictPolicy.SKIP);
+    var runner = runner(args);
+
+    assertThrows(IllegalStateException.class, runner::run);
+    verifyNoInteractions(cephStorage, redisStorage, keySource);
+  }
+
+  @Test
+  void shouldNotAdvanceWatermarkWhenKeysFailed(@TempDir Path tempDir) throws IOException {
+    var watermark = Instant.parse("2022-06-01T00:00:00Z");
+    var watermarkFile = tempDir.resolve("watermark");
+    Files.writeString(watermarkFile, watermark.toString());
+    var deadLetterFile = tempDir.resolve("dead-letter");
+    Files.writeString(deadLetterFile, "earlierKey" + System.lineSeparator());
+    var args = buildArgs(true, false);
+    args.setDeltaWatermarkFile(watermarkFile.toString());
+    args.setDeadLetterFile(deadLetterFile.toString());
+    var runner = runner(args);
+    var key = keyProvider.generateKey("taskid", "piid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(SourceObjectDto.builder().key(key)
+          .lastModified(watermark.plus(Duration.ofDays(1))).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+    doThrow(new IllegalStateException("error message")).when(redisStorage)
+        .putFormData(key, formData);
+
+    runner.run();
+
+    assertThat(Files.readString(watermarkFile)).isEqualTo(watermark.toString());
+    assertThat(Files.readAllLines(deadLetterFile)).containsExactly("earlierKey", key);
+    verify(cephStorage, never()).delete(any());
+  }
+
+  @Test
+  void shouldKeepKeysFailedVerificationInSource() {
+    var args = buildArgs(true, false);
+    args.setVerify(true);
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid1", "taskid");
+    var mismatchedKey = keyProvider.generateKey("piid2", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John", "age", 42)))
+        .build();
+    var reordered = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("age", 42L, "name", "John")))
+        .build();
+    var changed = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "Bob")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(new LinkedHashSet<>(List.of(key, mismatchedKey)));
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+    when(redisStorage.getFormData(key)).thenReturn(Optional.empty(), Optional.of(reordered));
+    when(redisStorage.getFormData(mismatchedKey))
+        .thenReturn(Optional.empty(), Optional.of(changed));
+
+    runner.run();
+
+    verify(cephStorage, times(1)).delete(Set.of(key));
+    assertThat(metrics.getCount(KeyStatus.MIGRATED)).isEqualTo(1);
+    assertThat(metrics.getCount(KeyStatus.MISMATCHED)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldMigrateMismatchedKeyAgainOnNextRun() {
+    var args = buildArgs(true, true);
+    args.setVerify(true);
+    var key = keyProvider.generateKey("piid", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    var corrupted = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "Bob")))
+        .build();
+    var target = new ConcurrentHashMap<String, FormDataDto>();
+    var puts = new AtomicInteger();
+
+    when(cephStorage.keys()).thenReturn(Set.of(key));
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+    when(redisStorage.getFormData(key))
+        .thenAnswer(invocation -> Optional.ofNullable(target.get(key)));
+    doAnswer(invocation -> target.put(key,
+        puts.getAndIncrement() == 0 ? corrupted : invocation.getArgument(1)))
+        .when(redisStorage).putFormData(eq(key), any());
+    doAnswer(invocation -> {
+      target.keySet().removeAll(invocation.<Set<String>>getArgument(0));
+      return null;
+    }).when(redisStorage).delete(any());
+
+    runner(args).run();
+
+    assertThat(target).doesNotContainKey(key);
+    verify(cephStorage, never()).delete(any());
+
+    runner(args).run();
+
+    assertThat(target).containsEntry(key, formData);
+    verify(redisStorage, times(2)).putFormData(key, formData);
+    verify(cephStorage).delete(Set.of(key));
+  }
+
+  @Test
+  void shouldOverwriteWithoutCheckingRedis() {
+    var args = buildArgs(false, false);
+    args.setConflictPolicy(ConflictPolicy.OVERWRITE);
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    when(cephStorage.keys()).thenReturn(Set.of(key));
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(redisStorage).putFormData(key, formData);
+    verify(redisStorage, never()).getFormData(any());
+    verifyNoInteractions(batchOperations);
+  }
+
+  @Test
+  void shouldOverwriteOnlyWhenSourceIsNewer() {
+    var args = buildArgs(false, false);
+    args.setRedisBatchSize(10);
+    args.setConflictPolicy(ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER);
+    var runner = runner(args);
+    var newerKey = keyProvider.generateKey("piid1", "taskid");
+    var upToDateKey = keyProvider.generateKey("piid2", "taskid");
+    var modified = Instant.parse("2022-06-01T00:00:00Z");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    var sourceModified = Map.of(newerKey, modified, upToDateKey, modified);
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(newerKey).lastModified(modified).build(),
+          SourceObjectDto.builder().key(upToDateKey).lastModified(modified).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findUpToDate(List.of(newerKey, upToDateKey), sourceModified))
+        .thenReturn(Set.of(upToDateKey));
+    when(cephStorage.getFormData(newerKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(batchOperations).putAll(Map.of(newerKey, formData));
+    verify(batchOperations).recordSourceModified(Map.of(newerKey, modified));
+    verify(cephStorage, never()).getFormData(upToDateKey);
+    verify(cephStorage, never()).keys();
+  }
+
+  @Test
+  void shouldRecordSourceModifiedOncePerPage() {
+    var args = buildArgs(false, false);
+    args.setConflictPolicy(ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER);
+    var runner = runner(args);
+    var firstKey = keyProvider.generateKey("taskid", "piid1");
+    var secondKey = keyProvider.generateKey("taskid", "piid2");
+    var modified = Instant.parse("2022-06-01T00:00:00Z");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(firstKey).lastModified(modified).build(),
+          SourceObjectDto.builder().key(secondKey).lastModified(modified).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findUpToDate(any(), any())).thenReturn(Set.of());
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(redisStorage).putFormData(firstKey, formData);
+    verify(redisStorage).putFormData(secondKey, formData);
+    verify(batchOperations).recordSourceModified(Map.of(firstKey, modified, secondKey, modified));
+  }
+
+  @Test
+  void shouldChargeBytesOfEveryObjectWhenBytesAreLimited() {
+    var args = buildArgs(false, false);
+    args.setMaxBytesPerSecond(1_000_000);
+    var throttle = spy(new StorageThrottle(args, metrics));
+    var runner = new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage,
+        keySource, cephStorage::getFormData, batchOperations, metrics, planner, throttle,
+        new MigrationVerifier(new ObjectMapper(), redisStorage, throttle, args));
+    var firstKey = keyProvider.generateKey("taskid", "piid1");
+    var secondKey = keyProvider.generateKey("taskid", "piid2");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(firstKey).size(100).build(),
+          SourceObjectDto.builder().key(secondKey).size(200).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(cephStorage.getFormData(any())).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(throttle).acquireBytes(100);
+    verify(throttle).acquireBytes(200);
+    verify(throttle, never()).acquireBytes(300);
+  }
+
+  @Test
+  void shouldNotRecordSourceModifiedWhenSkippingExistingKeys() {
+    var args = buildArgs(false, false);
+    args.setRedisBatchSize(10);
+    args.setPageSize(10);
+    var runner = runner(args);
+    var key = keyProvider.generateKey("taskid", "piid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(SourceObjectDto.builder().key(key)
+          .lastModified(Instant.parse("2022-06-01T00:00:00Z")).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findExisting(List.of(key))).thenReturn(Set.of());
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(batchOperations).putAll(Map.of(key, formData));
+    verify(batchOperations, never()).recordSourceModified(any());
+  }
+
+  @Test
+  void shouldCountKeysAndExportMetrics(@TempDir Path tempDir) throws IOException {
+    var metricsFile = tempDir.resolve("metrics.prom");
+    var args = buildArgs(true, true);
+    args.setMetricsFile(metricsFile.toString());
+    var runner = runner(args);
+    var key = keyProvider.generateKey("piid", "taskid");
+    var redisKey = keyProvider.generateKey("piid1", "taskid2");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .signature("signature")
+        .build();
+
+    when(cephStorage.keys()).thenReturn(Set.of(redisKey, key, "invalidKey"));
+    when(cephStorage.getFormData(key)).thenReturn(Optional.of(formData));
+    when(redisStorage.getFormData(any())).thenAnswer(invocation ->
+        redisKey.equals(invocation.getArgument(0)) ? Optional.of(formData) : Optional.empty());
+
+    runner.run();
+
+    assertThat(metrics.getCount(KeyStatus.MIGRATED)).isEqualTo(1);
+    assertThat(metrics.getCount(KeyStatus.SKIPPED)).isEqualTo(1);
+    assertThat(metrics.getCount(KeyStatus.INVALID)).isEqualTo(1);
+    assertThat(metrics.getCount(KeyStatus.DELETED)).isEqualTo(3);
+    assertThat(metrics.getBytes()).isEqualTo("signature".length());
+    assertThat(metrics.getTimer(Operation.CEPH_GET).count()).isEqualTo(1);
+    assertThat(metrics.getTimer(Operation.REDIS_GET).count()).isEqualTo(2);
+    assertThat(Files.readString(metricsFile))
+        .contains("formdata_migration_keys_total{status=\"migrated\",} 1.0")
+        .contains("formdata_migration_storage_requests_seconds_bucket{operation=\"redis-put\"");
+  }
+
+  @Test
+  void shouldMigrateOnlyKeysOfShard() {
+    var args = buildArgs(true, true);
+    args.setShardIndex(1);
+    args.setShardCount(2);
+    var runner = runner(args);
+    var keys = IntStream.range(0, 20)
+        .mapToObj(i -> keyProvider.generateKey("piid" + i, "taskid"))
+        .collect(Collectors.toSet());
+    var shardKeys = keys.stream()
+        .filter(key -> KeyShardFilter.shardOf(key, 2) == 1)
+        .collect(Collectors.toSet());
+
+    when(cephStorage.keys()).thenReturn(keys);
+
+    runner.run();
+
+    keys.forEach(key -> verify(cephStorage, times(shardKeys.contains(key) ? 1 : 0))
+        .getFormData(key));
+    verify(cephStorage, times(1)).delete(shardKeys);
+  }
+
+  @Test
+  void shouldNotMigrateInDryRun() {
+    var args = buildArgs(true, true);
+    args.setDryRun(true);
+    var runner = runner(args);
+
+    runner.run();
+
+    verify(planner).plan(any(), any());
+    verifyNoInteractions(cephStorage, redisStorage);
+  }
+
+  @Test
+  void shouldRollBackFromRedisToCeph() {
+    var args = buildArgs(true, true);
+    args.setDirection(MigrationDirection.REDIS_TO_CEPH);
+    var throttle = new StorageThrottle(args, metrics);
+    var runner = new FormDataStorageMigrationCliRunner(args, validator, redisStorage, cephStorage,
+        keySource, redisStorage::getFormData, batchOperations, metrics, planner, throttle,
+        new MigrationVerifier(new ObjectMapper(), cephStorage, throttle, args));
+    var key = keyProvider.generateKey("piid", "taskid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(sourceObject(key)));
+      return null;
+    }).when(keySource).forEachPage(eq(1000), any());
+    when(redisStorage.getFormData(key)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(redisStorage, never()).keys();
+    verify(cephStorage).putFormData(key, formData);
+    verify(redisStorage).delete(Set.of(key));
+    assertThat(metrics.getTimer(Operation.CEPH_PUT).count()).isEqualTo(1);
+    assertThat(metrics.getTimer(Operation.REDIS_DELETE).count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRejectDeltaModeForRedisSource() {
+    var args = buildArgs(true, true);
+    args.setDirection(MigrationDirection.REDIS_TO_CEPH);
+    args.setDeltaWatermarkFile("watermark");
+    var runner = runner(args);
+
+    assertThrows(IllegalStateException.class, runner::run);
+    verifyNoInteractions(cephStorage, redisStorage, keySource);
+  }
+
+  @Test
+  void shouldListAndMigrateOnlySelectedKeys() {
+    var args = buildArgs(true, true);
+    args.setKeyTypes(List.of("start-form"));
+    args.setProcessDefinitions(List.of("order"));
+    var runner = runner(args);
+    var selectedKey = keyProvider.generateStartFormKey("order", "uuid");
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(2);
+      consumer.accept(List.of(sourceObject(selectedKey),
+          sourceObject(keyProvider.generateKeyForExternalSystem("order", "uuid"))));
+      return null;
+    }).when(keySource).forEachPage(eq(KeyType.START_FORM.getPrefix("order")), eq(1000), any());
+    when(cephStorage.getFormData(selectedKey)).thenReturn(Optional.of(formData));
+
+    runner.run();
+
+    verify(keySource, never()).forEachPage(anyInt(), any());
+    verify(cephStorage, never()).keys();
+    verify(redisStorage).putFormData(selectedKey, formData);
+    verify(cephStorage).delete(Set.of(selectedKey));
+  }
+
+  @Test
+  void shouldRejectDeltaModeWithKeySelection() {
+    var args = buildArgs(true, true);
+    args.setDeltaWatermarkFile("watermark");
+    args.setExcludePrefixes(List.of("process/"));
+    var runner = runner(args);
+
+    assertThrows(IllegalStateException.class, runner::run);
+    verifyNoInteractions(cephStorage, redisStorage, keySource);
+  }
+
+  private FormDataStorageMigrationCliRunner runner(ArgsDto args) {
+    var throttle = new StorageThrottle(args, metrics);
+    return new FormDataStorageMigrationCliRunner(args, validator, cephStorage, redisStorage,
+        keySource, cephStorage::getFormData, batchOperations, metrics, planner, throttle,
+        new MigrationVerifier(new ObjectMapper(), redisStorage, throttle, args));
+  }
+
+  private SourceObjectDto sourceObject(String key) {
+    return SourceObjectDto.builder().key(key).build();
+  }
+
   private ArgsDto buildArgs(boolean deleteAfterMigration, boolean deleteUnexpected) {
     return ArgsDto.builder()
         .deleteAfterMigration(deleteAfterMigration)
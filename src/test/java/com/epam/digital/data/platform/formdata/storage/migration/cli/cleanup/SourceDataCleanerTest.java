@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SourceDataCleanerTest {
+
+  @Mock
+  private FormDataStorageService sourceStorage;
+
+  private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+
+  @Test
+  void shouldDeleteInChunks() {
+    var chunks = Collections.synchronizedList(new ArrayList<Set<String>>());
+    doAnswer(invocation -> chunks.add(Set.copyOf(invocation.getArgument(0))))
+        .when(sourceStorage).delete(any());
+
+    try (var cleaner = new SourceDataCleaner(sourceStorage::delete, 2, 2, deleted::addAll)) {
+      cleaner.addAll(keys(5));
+      cleaner.awaitCompletion();
+    }
+
+    assertThat(chunks).hasSize(3).allMatch(chunk -> chunk.size() <= 2);
+    assertThat(chunks.stream().flatMap(Set::stream)).containsExactlyInAnyOrderElementsOf(keys(5));
+  }
+
+  @Test
+  void shouldLimitChunkSizeByDeleteObjectsLimit() {
+    var chunkSizes = Collections.synchronizedList(new ArrayList<Integer>());
+    doAnswer(invocation -> chunkSizes.add(invocation.<Set<String>>getArgument(0).size()))
+        .when(sourceStorage).delete(any());
+
+    try (var cleaner = new SourceDataCleaner(sourceStorage::delete, 5000, 1, deleted::addAll)) {
+      cleaner.addAll(keys(2500));
+      cleaner.awaitCompletion();
+    }
+
+    assertThat(chunkSizes).containsExactly(1000, 1000, 500);
+  }
+
+  @Test
+  void shouldDeleteRemainingChunksWhenChunkFailed() {
+    doAnswer(invocation -> {
+      if (invocation.<Set<String>>getArgument(0).contains("key0")) {
+        throw new IllegalStateException("timeout");
+      }
+      return null;
+    }).when(sourceStorage).delete(any());
+
+    try (var cleaner = new SourceDataCleaner(sourceStorage::delete, 2, 1, deleted::addAll)) {
+      cleaner.addAll(keys(6));
+
+      var exception = assertThrows(IllegalStateException.class, cleaner::awaitCompletion);
+
+      assertThat(exception.getMessage()).contains("1 chunks with 2 keys");
+    }
+    verify(sourceStorage, times(3)).delete(any());
+    assertThat(deleted).containsExactlyInAnyOrder("key2", "key3", "key4", "key5");
+  }
+
+  private List<String> keys(int count) {
+    return IntStream.range(0, count).mapToObj(i -> "key" + i).collect(Collectors.toList());
+  }
+}
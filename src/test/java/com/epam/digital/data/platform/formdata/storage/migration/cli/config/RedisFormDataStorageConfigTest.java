@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.config.RedisStorageConfiguration;
+import com.epam.digital.data.platform.storage.form.factory.StorageServiceFactory;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RedisFormDataStorageConfigTest {
+
+  private final StorageServiceFactory storageServiceFactory = mock(StorageServiceFactory.class);
+  private final RedisConnectionFactory sourceConnectionFactory =
+      mock(RedisConnectionFactory.class);
+  private final RedisConnectionFactory targetConnectionFactory =
+      mock(RedisConnectionFactory.class);
+  private final FormDataStorageService sourceStorageService = mock(FormDataStorageService.class);
+  private final FormDataStorageService targetStorageService = mock(FormDataStorageService.class);
+  private final RedisStorageConfiguration sourceConfiguration = new RedisStorageConfiguration();
+
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+      .withBean("redisStorageServiceFactory", StorageServiceFactory.class,
+          () -> storageServiceFactory)
+      .withBean("redisStorageConfiguration", RedisStorageConfiguration.class,
+          () -> sourceConfiguration)
+      .withBean("redisConnectionFactory", RedisConnectionFactory.class,
+          () -> sourceConnectionFactory, definition -> definition.setPrimary(true))
+      .withBean("redisFormDataStorageService", FormDataStorageService.class,
+          () -> sourceStorageService)
+      .withBean(StorageThrottle.class, () -> mock(StorageThrottle.class))
+      .withInitializer(context -> context.getBeanFactory().registerSingleton("argsDto",
+          ArgsDto.builder().redisKeyspace("bpm-form-submissions").build()))
+      .withUserConfiguration(RedisFormDataStorageConfig.TargetRedisFormDataStorageConfig.class);
+
+  @Test
+  void shouldWireTargetRedisBeansToTargetConnectionFactory() {
+    when(storageServiceFactory.redisConnectionFactory(any())).thenAnswer(
+        invocation -> invocation.getArgument(0) == sourceConfiguration ? sourceConnectionFactory
+            : targetConnectionFactory);
+    when(storageServiceFactory.formDataStorageService(same(targetConnectionFactory), any()))
+        .thenReturn(targetStorageService);
+
+    contextRunner.withPropertyValues("direction=redis-to-redis").run(context -> {
+      assertThat(context).hasNotFailed();
+      assertThat(context.getBean("targetRedisConnectionFactory"))
+          .isSameAs(targetConnectionFactory)
+          .isNotSameAs(context.getBean(RedisConnectionFactory.class));
+      assertThat(context.getBean("targetRedisFormDataStorageService"))
+          .isSameAs(targetStorageService);
+      var batchOperations = context.getBean("targetRedisBatchOperations");
+      assertThat(ReflectionTestUtils.getField(batchOperations, "redisConnectionFactory"))
+          .isSameAs(targetConnectionFactory);
+      assertThat(ReflectionTestUtils.getField(batchOperations, "targetFormDataStorageService"))
+          .isSameAs(targetStorageService);
+    });
+
+    verify(storageServiceFactory).formDataStorageService(same(targetConnectionFactory),
+        any(RedisStorageConfiguration.class));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"redis-to-redis", "REDIS_TO_REDIS", "redis_to_redis", "Redis-To-Redis"})
+  void shouldCreateTargetRedisBeansForAnyDirectionSpellingBoundToRedisToRedis(String direction) {
+    contextRunner.withPropertyValues("direction=" + direction).run(context -> {
+      assertThat(context).hasNotFailed();
+      assertThat(context).hasBean("targetRedisFormDataStorageService")
+          .hasBean("targetRedisBatchOperations");
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"ceph-to-redis", "REDIS_TO_CEPH"})
+  void shouldNotCreateTargetRedisBeansForOtherDirections(String direction) {
+    contextRunner.withPropertyValues("direction=" + direction).run(context -> {
+      assertThat(context).hasNotFailed();
+      assertThat(context).doesNotHaveBean("targetRedisFormDataStorageService")
+          .doesNotHaveBean("targetRedisBatchOperations");
+    });
+  }
+
+  @Test
+  void shouldNotCreateTargetRedisBeansWithoutDirection() {
+    contextRunner.run(context -> {
+      assertThat(context).hasNotFailed();
+      assertThat(context).doesNotHaveBean("targetRedisFormDataStorageService");
+    });
+  }
+}
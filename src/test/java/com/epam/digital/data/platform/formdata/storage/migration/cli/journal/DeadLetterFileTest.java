@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeadLetterFileTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldAppendKeysOfEveryRun() {
+    var path = tempDir.resolve("dead-letter");
+    try (var deadLetter = DeadLetterFile.open(path)) {
+      deadLetter.add("key1");
+    }
+    try (var deadLetter = DeadLetterFile.open(path)) {
+      deadLetter.add("key2");
+    }
+
+    assertThat(DeadLetterFile.read(path)).containsExactly("key1", "key2");
+  }
+
+  @Test
+  void shouldReplaceFileOnlyWhenRetryCompleted() throws IOException {
+    var path = tempDir.resolve("dead-letter");
+    Files.writeString(path, "key1\nkey2\n");
+
+    try (var deadLetter = DeadLetterFile.openReplacement(path)) {
+      deadLetter.add("key2");
+    }
+    assertThat(DeadLetterFile.read(path)).containsExactly("key1", "key2");
+
+    try (var deadLetter = DeadLetterFile.openReplacement(path)) {
+      deadLetter.add("key2");
+      deadLetter.complete();
+    }
+    assertThat(DeadLetterFile.read(path)).containsExactly("key2");
+    assertThat(tempDir.resolve("dead-letter.tmp")).doesNotExist();
+  }
+}
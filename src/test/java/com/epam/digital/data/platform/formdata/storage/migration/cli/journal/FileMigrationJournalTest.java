@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileMigrationJournalTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldRestoreLastStatusOnResume() {
+    var path = tempDir.resolve("journal");
+    try (var journal = FileMigrationJournal.open(path, false, 2)) {
+      journal.record("key1", KeyStatus.FAILED);
+      journal.record("key2", KeyStatus.SKIPPED);
+      journal.record("key1", KeyStatus.MIGRATED);
+    }
+
+    try (var journal = FileMigrationJournal.open(path, true, 2)) {
+      assertThat(journal.getStatus("key1")).isEqualTo(KeyStatus.MIGRATED);
+      assertThat(journal.getStatus("key2")).isEqualTo(KeyStatus.SKIPPED);
+      assertThat(journal.getStatus("key3")).isNull();
+      journal.record("key3", KeyStatus.DELETED);
+    }
+
+    try (var journal = FileMigrationJournal.open(path, true, 2)) {
+      assertThat(journal.getStatus("key1")).isEqualTo(KeyStatus.MIGRATED);
+      assertThat(journal.getStatus("key3")).isEqualTo(KeyStatus.DELETED);
+    }
+  }
+
+  @Test
+  void shouldRestoreLastStatusOfEveryKeyRecordedInAnyOrder() {
+    var path = tempDir.resolve("journal");
+    var statuses = KeyStatus.values();
+    try (var journal = FileMigrationJournal.open(path, false, 100)) {
+      for (var i = 99; i >= 0; i--) {
+        journal.record("key" + i, KeyStatus.FAILED);
+      }
+      for (var i = 0; i < 100; i++) {
+        journal.record("key" + i, statuses[i % statuses.length]);
+      }
+    }
+
+    try (var journal = FileMigrationJournal.open(path, true, 1)) {
+      for (var i = 0; i < 100; i++) {
+        assertThat(journal.getStatus("key" + i)).isEqualTo(statuses[i % statuses.length]);
+      }
+      assertThat(journal.getStatus("key100")).isNull();
+      assertThat(journal.getStatus("")).isNull();
+    }
+  }
+
+  @Test
+  void shouldStartFromScratchWithoutResume() {
+    var path = tempDir.resolve("journal");
+    try (var journal = FileMigrationJournal.open(path, false, 1)) {
+      journal.record("key1", KeyStatus.MIGRATED);
+    }
+
+    try (var journal = FileMigrationJournal.open(path, false, 1)) {
+      assertThat(journal.getStatus("key1")).isNull();
+    }
+    assertThat(path).isEmptyFile();
+  }
+
+  @Test
+  void shouldSkipMalformedRecords() throws IOException {
+    var path = tempDir.resolve("journal");
+    Files.writeString(path, "MIGRATED key1\nUNKNOWN key2\nMIGR");
+
+    try (var journal = FileMigrationJournal.open(path, true, 1)) {
+      assertThat(journal.getStatus("key1")).isEqualTo(KeyStatus.MIGRATED);
+      assertThat(journal.getStatus("key2")).isNull();
+    }
+  }
+}
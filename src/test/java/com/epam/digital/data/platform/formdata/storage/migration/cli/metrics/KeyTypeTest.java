@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class KeyTypeTest {
+
+  private final FormDataKeyProviderImpl keyProvider = new FormDataKeyProviderImpl();
+
+  @Test
+  void shouldDetectKeyTypeByKeyFormat() {
+    assertThat(KeyType.of(keyProvider.generateKey("piid", "taskid"))).isEqualTo(KeyType.TASK);
+    assertThat(KeyType.of(keyProvider.generateStartFormKey("process", "uuid")))
+        .isEqualTo(KeyType.START_FORM);
+    assertThat(KeyType.of(keyProvider.generateKeyForExternalSystem("process", "uuid")))
+        .isEqualTo(KeyType.START_MESSAGE);
+    assertThat(KeyType.of(keyProvider.generateSystemSignatureKey("piid", "uuid")))
+        .isEqualTo(KeyType.SYSTEM_SIGNATURE);
+    assertThat(KeyType.of(keyProvider.generateBatchSystemSignatureKey("piid", 1)))
+        .isEqualTo(KeyType.BATCH_SYSTEM_SIGNATURE);
+    assertThat(KeyType.of("lowcode/form-data")).isEqualTo(KeyType.OTHER);
+  }
+
+  @Test
+  void shouldDetectKeyTypeByPatternFoundByValidator() {
+    var validator = new FormDataKeyValidator(ValidationConfig.PATTERNS);
+
+    assertThat(KeyType.of(validator.findPattern(keyProvider.generateKey("piid", "taskid"))))
+        .isEqualTo(KeyType.TASK);
+    assertThat(KeyType.of(validator.findPattern(
+        keyProvider.generateBatchSystemSignatureKey("piid", 1))))
+        .isEqualTo(KeyType.BATCH_SYSTEM_SIGNATURE);
+    assertThat(KeyType.of(Pattern.compile("lowcode/(.*)"))).isEqualTo(KeyType.OTHER);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.journal.KeyStatus;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+class MigrationMetricsTest {
+
+  private final MigrationMetrics metrics = new MigrationMetrics(
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+  @Test
+  void shouldCountEveryFinalStatusAsProcessed() {
+    metrics.count(KeyStatus.MIGRATED, 4);
+    metrics.count(KeyStatus.SKIPPED);
+    metrics.count(KeyStatus.INVALID);
+    metrics.count(KeyStatus.FAILED);
+    metrics.count(KeyStatus.MISMATCHED, 2);
+    metrics.count(KeyStatus.DELETED, 4);
+
+    assertThat(metrics.getProcessedKeys()).isEqualTo(9);
+  }
+
+  @Test
+  void shouldTagStatusesIndependentlyOfDefaultLocale() {
+    var defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      var registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+      new MigrationMetrics(registry);
+
+      assertThat(registry.scrape())
+          .contains("status=\"failed\"")
+          .contains("status=\"invalid\"");
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.plan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.PatternSummaryDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.policy.ConflictPolicy;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.FormDataKeySource;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeyShardFilter;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.source.KeySelector;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.target.TargetBatchOperations;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.validator.FormDataKeyValidator;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MigrationPlannerTest {
+
+  @Mock
+  private FormDataKeySource keySource;
+  @Mock
+  private TargetBatchOperations batchOperations;
+
+  private final FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
+  private final FormDataKeyValidator validator = new FormDataKeyValidator(
+      ValidationConfig.PATTERNS);
+
+  @Test
+  void shouldSummarizeKeysPerPattern(@TempDir Path tempDir) throws Exception {
+    var report = tempDir.resolve("report.json");
+    var args = ArgsDto.builder().concurrency(2).dryRunReport(report.toString()).build();
+    var planner = new MigrationPlanner(args, validator, keySource, batchOperations,
+        new ObjectMapper());
+    var taskKey = keyProvider.generateKey("task", "piid1");
+    var redisTaskKey = keyProvider.generateKey("task", "piid2");
+    var startFormKey = keyProvider.generateStartFormKey("process", "id");
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(object(taskKey, 10), object(redisTaskKey, 20),
+          object(startFormKey, 40), object("invalid", 80)));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findExisting(any())).thenReturn(Set.of(redisTaskKey));
+
+    var plan = planner.plan(new KeyShardFilter(0, 1), KeySelector.of(args));
+
+    assertThat(plan.getPatterns()).hasSize(ValidationConfig.PATTERNS.size());
+    assertThat(plan.getPatterns().get(0)).isEqualTo(
+        new PatternSummaryDto(ValidationConfig.PATTERNS.get(0).pattern(), 2, 30, 1, 20));
+    assertThat(plan.getPatterns().get(1)).isEqualTo(
+        new PatternSummaryDto(ValidationConfig.PATTERNS.get(1).pattern(), 1, 40, 0, 0));
+    assertThat(plan.getInvalidKeys()).isEqualTo(1);
+    assertThat(plan.getInvalidBytes()).isEqualTo(80);
+    assertThat(plan.getKeysToMigrate()).isEqualTo(2);
+    assertThat(plan.getBytesToMigrate()).isEqualTo(50);
+    assertThat(Files.readString(report)).contains("\"keysToMigrate\" : 2");
+  }
+
+  @Test
+  void shouldPlanOverwriteWithoutCheckingTarget() {
+    var args = ArgsDto.builder().conflictPolicy(ConflictPolicy.OVERWRITE).build();
+    var planner = new MigrationPlanner(args, validator, keySource, batchOperations,
+        new ObjectMapper());
+    var taskKey = keyProvider.generateKey("task", "piid");
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(object(taskKey, 10)));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+
+    var plan = planner.plan(new KeyShardFilter(0, 1), KeySelector.of(args));
+
+    assertThat(plan.getKeysToMigrate()).isEqualTo(1);
+    assertThat(plan.getBytesToMigrate()).isEqualTo(10);
+    verifyNoInteractions(batchOperations);
+  }
+
+  @Test
+  void shouldPlanOverwriteIfSourceNewerByModificationTime() {
+    var args = ArgsDto.builder()
+        .conflictPolicy(ConflictPolicy.OVERWRITE_IF_SOURCE_NEWER)
+        .build();
+    var planner = new MigrationPlanner(args, validator, keySource, batchOperations,
+        new ObjectMapper());
+    var newerKey = keyProvider.generateKey("task", "piid1");
+    var upToDateKey = keyProvider.generateKey("task", "piid2");
+    var modified = Instant.parse("2022-06-01T00:00:00Z");
+
+    doAnswer(invocation -> {
+      Consumer<List<SourceObjectDto>> consumer = invocation.getArgument(1);
+      consumer.accept(List.of(
+          SourceObjectDto.builder().key(newerKey).size(10).lastModified(modified).build(),
+          SourceObjectDto.builder().key(upToDateKey).size(20).lastModified(modified).build()));
+      return null;
+    }).when(keySource).forEachPage(anyInt(), any());
+    when(batchOperations.findUpToDate(List.of(newerKey, upToDateKey),
+        Map.of(newerKey, modified, upToDateKey, modified))).thenReturn(Set.of(upToDateKey));
+
+    var plan = planner.plan(new KeyShardFilter(0, 1), KeySelector.of(args));
+
+    assertThat(plan.getKeysToMigrate()).isEqualTo(1);
+    assertThat(plan.getBytesToMigrate()).isEqualTo(10);
+  }
+
+  private SourceObjectDto object(String key, long size) {
+    return SourceObjectDto.builder().key(key).size(size).build();
+  }
+}
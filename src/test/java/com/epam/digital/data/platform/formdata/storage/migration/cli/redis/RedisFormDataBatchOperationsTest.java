@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+
+@ExtendWith(MockitoExtension.class)
+class RedisFormDataBatchOperationsTest {
+
+  @Mock
+  private RedisConnectionFactory connectionFactory;
+  @Mock
+  private RedisConnection connection;
+  @Mock
+  private RedisKeyCommands keyCommands;
+  @Mock
+  private FormDataStorageService redisStorage;
+
+  @Mock
+  private RedisHashCommands hashCommands;
+  @Mock
+  private FormDataStorageService recordingStorage;
+
+  private RedisFormDataBatchOperations batchOperations;
+  private RedisConnectionFactory recordingConnectionFactory;
+
+  @BeforeEach
+  void init() {
+    var args = ArgsDto.builder().redisBatchSize(2).redisKeyspace("keyspace").build();
+    batchOperations = new RedisFormDataBatchOperations(connectionFactory, redisStorage,
+        factory -> {
+          recordingConnectionFactory = factory;
+          return recordingStorage;
+        },
+        new StorageThrottle(args,
+            new MigrationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))), args);
+  }
+
+  @AfterEach
+  void destroy() {
+    batchOperations.preDestroy();
+  }
+
+  @Test
+  void shouldNotOpenPipelineForEmptyBatch() {
+    assertThat(batchOperations.putAll(Map.of())).isEmpty();
+
+    verifyNoInteractions(connectionFactory, recordingStorage);
+  }
+
+  @Test
+  void shouldCheckExistenceInSinglePipeline() {
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.keyCommands()).thenReturn(keyCommands);
+    when(connection.closePipeline()).thenReturn(List.of(true, false));
+
+    var existing = batchOperations.findExisting(List.of("key1", "key2"));
+
+    assertThat(existing).containsExactly("key1");
+    var order = inOrder(connection, keyCommands);
+    order.verify(connection).openPipeline();
+    order.verify(keyCommands).exists("keyspace:key1".getBytes(StandardCharsets.UTF_8));
+    order.verify(keyCommands).exists("keyspace:key2".getBytes(StandardCharsets.UTF_8));
+    order.verify(connection).closePipeline();
+    verify(connection).close();
+  }
+
+  @Test
+  void shouldFindKeysNotOlderThanSource() {
+    var modified = Instant.parse("2022-06-01T00:00:00Z");
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.keyCommands()).thenReturn(keyCommands);
+    when(connection.hashCommands()).thenReturn(hashCommands);
+    when(connection.closePipeline()).thenReturn(Arrays.asList(
+        true, millis(modified.minusSeconds(1)),
+        true, millis(modified),
+        true, null,
+        false, null));
+
+    var upToDate = batchOperations.findUpToDate(List.of("stale", "same", "unrecorded", "absent"),
+        Map.of("stale", modified, "same", modified, "unrecorded", modified, "absent", modified));
+
+    assertThat(upToDate).containsExactly("same");
+    verify(hashCommands).hGet(bytes(RedisFormDataBatchOperations.SOURCE_MODIFIED_KEY),
+        bytes("stale"));
+    verify(connection).close();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldRecordSourceModified() {
+    var modified = Instant.parse("2022-06-01T00:00:00Z");
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.hashCommands()).thenReturn(hashCommands);
+    when(connection.keyCommands()).thenReturn(keyCommands);
+
+    batchOperations.recordSourceModified(Map.of("key1", modified));
+
+    ArgumentCaptor<Map<byte[], byte[]>> fields = ArgumentCaptor.forClass(Map.class);
+    var order = inOrder(connection, hashCommands, keyCommands);
+    order.verify(connection).openPipeline();
+    order.verify(hashCommands).hMSet(eq(bytes(RedisFormDataBatchOperations.SOURCE_MODIFIED_KEY)),
+        fields.capture());
+    order.verify(keyCommands).expire(bytes(RedisFormDataBatchOperations.SOURCE_MODIFIED_KEY),
+        Duration.ofDays(30).toSeconds());
+    order.verify(connection).closePipeline();
+    var field = fields.getValue().entrySet().iterator().next();
+    assertThat(field.getKey()).isEqualTo(bytes("key1"));
+    assertThat(field.getValue()).isEqualTo(millis(modified));
+    verify(connection).close();
+  }
+
+  @Test
+  void shouldNotOpenConnectionForEmptyBatch() {
+    assertThat(batchOperations.findExisting(List.of())).isEmpty();
+
+    verify(connectionFactory, never()).getConnection();
+  }
+
+  @Test
+  void shouldWriteRecordedCommandsInSinglePipelineAndSkipInvalidData() {
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+    doAnswer(invocation -> {
+      String key = invocation.getArgument(0);
+      if ("invalid".equals(key)) {
+        throw new IllegalArgumentException("invalid");
+      }
+      try (var recording = recordingConnectionFactory.getConnection()) {
+        recording.hashCommands().hMSet(bytes("keyspace:" + key), Map.of(bytes("f"), bytes("v")));
+        recording.setCommands().sAdd(bytes("keyspace"), bytes(key));
+      }
+      return null;
+    }).when(recordingStorage).putFormData(any(), any());
+    when(connectionFactory.getConnection()).thenReturn(connection);
+
+    var formDataByKey = new LinkedHashMap<String, FormDataDto>();
+    formDataByKey.put("key1", formData);
+    formDataByKey.put("invalid", formData);
+    formDataByKey.put("key2", formData);
+    var failures = batchOperations.putAll(formDataByKey);
+
+    assertThat(failures).containsOnlyKeys("invalid");
+    assertThat(failures.get("invalid")).isInstanceOf(IllegalArgumentException.class);
+    var order = inOrder(connectionFactory, connection);
+    order.verify(connectionFactory).getConnection();
+    order.verify(connection).openPipeline();
+    order.verify(connection).hMSet(eq(bytes("keyspace:key1")), any());
+    order.verify(connection).sAdd(bytes("keyspace"), bytes("key1"));
+    order.verify(connection).hMSet(eq(bytes("keyspace:key2")), any());
+    order.verify(connection).sAdd(bytes("keyspace"), bytes("key2"));
+    order.verify(connection).closePipeline();
+    order.verify(connection).close();
+    verify(redisStorage, never()).putFormData(any(), any());
+  }
+
+  @Test
+  void shouldFailAllKeysOfFailedPipeline() {
+    var formData = FormDataDto.builder().build();
+    doAnswer(invocation -> {
+      try (var recording = recordingConnectionFactory.getConnection()) {
+        recording.setCommands().sAdd(bytes("keyspace"), bytes(invocation.getArgument(0)));
+      }
+      return null;
+    }).when(recordingStorage).putFormData(any(), any());
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.closePipeline()).thenThrow(new IllegalStateException("error"));
+
+    var failures = batchOperations.putAll(Map.of("key1", formData, "key2", formData));
+
+    assertThat(failures).containsOnlyKeys("key1", "key2");
+    assertThat(failures.get("key1")).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void shouldWriteKeysThatCannotBeRecordedOneByOne() {
+    var formData = FormDataDto.builder().build();
+    doThrow(new IllegalStateException("unexpected result")).when(recordingStorage)
+        .putFormData(any(), any());
+
+    var failures = batchOperations.putAll(Map.of("key1", formData));
+
+    assertThat(failures).isEmpty();
+    verify(redisStorage).putFormData("key1", formData);
+    verify(connectionFactory, never()).getConnection();
+  }
+
+  private static byte[] millis(Instant instant) {
+    return bytes(String.valueOf(instant.toEpochMilli()));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  @Test
+  void shouldOpenAfterConsecutiveFailures() {
+    var breaker = new CircuitBreaker("redis", 2, TimeUnit.MINUTES.toNanos(1));
+
+    fail(breaker);
+    fail(breaker);
+
+    assertThatThrownBy(() -> breaker.call(() -> "ok"))
+        .isInstanceOf(CircuitBreakerOpenException.class);
+  }
+
+  @Test
+  void shouldResetFailuresOnSuccess() {
+    var breaker = new CircuitBreaker("redis", 2, TimeUnit.MINUTES.toNanos(1));
+
+    fail(breaker);
+    breaker.call(() -> "ok");
+    fail(breaker);
+
+    assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+  }
+
+  @Test
+  void shouldNotCountInvalidDataAsFailure() {
+    var breaker = new CircuitBreaker("redis", 1, TimeUnit.MINUTES.toNanos(1));
+
+    assertThatThrownBy(() -> breaker.call(() -> {
+      throw new IllegalArgumentException("invalid");
+    })).isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+  }
+
+  @Test
+  void shouldCloseAfterSuccessfulProbe() {
+    var breaker = new CircuitBreaker("ceph", 1, 0);
+
+    fail(breaker);
+
+    assertThat(breaker.call(() -> "probe")).isEqualTo("probe");
+    assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+  }
+
+  private static void fail(CircuitBreaker breaker) {
+    assertThatThrownBy(() -> breaker.call(() -> {
+      throw new IllegalStateException("error");
+    })).isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  private final RetryPolicy retryPolicy = new RetryPolicy(3, 1000, 4000);
+
+  @Test
+  void shouldRetryUntilSuccess() {
+    var calls = new AtomicInteger();
+
+    var result = retryPolicy.execute("test", () -> {
+      if (calls.incrementAndGet() < 3) {
+        throw new IllegalStateException("transient");
+      }
+      return "ok";
+    });
+
+    assertThat(result).isEqualTo("ok");
+    assertThat(calls).hasValue(3);
+  }
+
+  @Test
+  void shouldRethrowAfterLastAttempt() {
+    var calls = new AtomicInteger();
+
+    assertThatThrownBy(() -> retryPolicy.execute("test", () -> {
+      calls.incrementAndGet();
+      throw new IllegalStateException("permanent");
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(calls).hasValue(3);
+  }
+
+  @Test
+  void shouldNotRetryInvalidData() {
+    var calls = new AtomicInteger();
+
+    assertThatThrownBy(() -> retryPolicy.execute("test", () -> {
+      calls.incrementAndGet();
+      throw new IllegalArgumentException("invalid");
+    })).isInstanceOf(IllegalArgumentException.class);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void shouldGrowBackoffExponentiallyWithJitter() {
+    var failure = new IllegalStateException();
+
+    assertThat(retryPolicy.backoffNanos(1, failure)).isBetween(500L, 1000L);
+    assertThat(retryPolicy.backoffNanos(2, failure)).isBetween(1000L, 2000L);
+    assertThat(retryPolicy.backoffNanos(5, failure)).isBetween(2000L, 4000L);
+  }
+
+  @Test
+  void shouldWaitUntilCircuitBreakerAllowsCalls() {
+    var remaining = TimeUnit.SECONDS.toNanos(1);
+
+    assertThat(retryPolicy.backoffNanos(1, new CircuitBreakerOpenException("redis", remaining)))
+        .isEqualTo(remaining);
+  }
+}
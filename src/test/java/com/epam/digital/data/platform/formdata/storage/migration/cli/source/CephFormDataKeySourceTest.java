@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CephFormDataKeySourceTest {
+
+  @Mock
+  private AmazonS3 amazonS3;
+
+  @Test
+  void shouldWalkBucketUsingContinuationTokens() {
+    var keySource = new CephFormDataKeySource(amazonS3, "bucket");
+    var requestedTokens = new ArrayList<String>();
+    when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      requestedTokens.add(request.getContinuationToken());
+      return request.getContinuationToken() == null
+          ? listing(true, "token", "key1", "key2")
+          : listing(false, null, "key3");
+    });
+    var pages = new ArrayList<List<String>>();
+
+    keySource.forEachPage(2, page -> pages.add(page.stream()
+        .map(SourceObjectDto::getKey)
+        .collect(Collectors.toList())));
+
+    assertThat(pages).containsExactly(List.of("key1", "key2"), List.of("key3"));
+    assertThat(requestedTokens).containsExactly(null, "token");
+  }
+
+  private ListObjectsV2Result listing(boolean truncated, String nextToken, String... keys) {
+    var result = new ListObjectsV2Result();
+    result.setTruncated(truncated);
+    result.setNextContinuationToken(nextToken);
+    for (var key : keys) {
+      var summary = new S3ObjectSummary();
+      summary.setKey(key);
+      result.getObjectSummaries().add(summary);
+    }
+    return result;
+  }
+}
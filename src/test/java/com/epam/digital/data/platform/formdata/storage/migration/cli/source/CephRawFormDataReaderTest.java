@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.S3Object;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CephRawFormDataReaderTest {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "key";
+
+  @Mock
+  private AmazonS3 amazonS3;
+
+  private CephRawFormDataReader reader;
+
+  @BeforeEach
+  void init() {
+    reader = new CephRawFormDataReader(amazonS3, BUCKET, new ObjectMapper());
+  }
+
+  @Test
+  void shouldBindRawContent() {
+    mockContent(" {\"data\":{\"name\":\"John\"},\"signature\":\"sign\"}\n");
+
+    var result = reader.getFormData(KEY);
+
+    assertThat(result).contains(FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .signature("sign")
+        .build());
+  }
+
+  @Test
+  void shouldFailOnContentThatIsNotFormData() {
+    mockContent("[{}]");
+
+    assertThrows(IllegalArgumentException.class, () -> reader.getFormData(KEY));
+  }
+
+  @Test
+  void shouldReturnEmptyForMissingObject() {
+    var exception = new AmazonS3Exception("Not found");
+    exception.setStatusCode(404);
+    when(amazonS3.getObject(BUCKET, KEY)).thenThrow(exception);
+
+    assertThat(reader.getFormData(KEY)).isEmpty();
+  }
+
+  private void mockContent(String content) {
+    var object = new S3Object();
+    object.setObjectContent(new ByteArrayInputStream(bytes(content)));
+    when(amazonS3.getObject(BUCKET, KEY)).thenReturn(object);
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+}
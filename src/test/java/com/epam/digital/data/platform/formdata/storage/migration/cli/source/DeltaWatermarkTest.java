@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DeltaWatermarkTest {
+
+  private static final Instant SINCE = Instant.parse("2022-06-01T00:00:00Z");
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldAcceptAllObjectsWithoutPreviousWatermark() throws IOException {
+    var path = tempDir.resolve("watermark");
+    var watermark = DeltaWatermark.open(path);
+
+    assertThat(watermark.getSince()).isNull();
+    assertThat(watermark.test(object(SINCE.minusSeconds(60)))).isTrue();
+
+    watermark.save();
+
+    assertThat(Files.readString(path)).isEqualTo(SINCE.minusSeconds(60).toString());
+  }
+
+  @Test
+  void shouldAcceptObjectsModifiedSinceWatermark() {
+    var watermark = new DeltaWatermark(tempDir.resolve("watermark"), SINCE, Instant.now());
+
+    assertThat(watermark.test(object(SINCE.minusMillis(1)))).isFalse();
+    assertThat(watermark.test(object(SINCE))).isTrue();
+    assertThat(watermark.test(object(null))).isTrue();
+  }
+
+  @Test
+  void shouldNotMoveWatermarkPastRunStart() throws IOException {
+    var path = tempDir.resolve("watermark");
+    var runStart = SINCE.plus(Duration.ofHours(1));
+    var watermark = new DeltaWatermark(path, SINCE, runStart);
+
+    watermark.test(object(runStart.plusSeconds(10)));
+    watermark.save();
+
+    assertThat(Instant.parse(Files.readString(path)))
+        .isEqualTo(runStart.minus(DeltaWatermark.CLOCK_SKEW_MARGIN));
+  }
+
+  @Test
+  void shouldNotMoveWatermarkBackwards() throws IOException {
+    var path = tempDir.resolve("watermark");
+    var watermark = new DeltaWatermark(path, SINCE, Instant.now());
+
+    watermark.test(object(SINCE.minusSeconds(10)));
+    watermark.save();
+
+    assertThat(Instant.parse(Files.readString(path))).isEqualTo(SINCE);
+  }
+
+  private static SourceObjectDto object(Instant lastModified) {
+    return SourceObjectDto.builder().key("key").lastModified(lastModified).build();
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.KeyType;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class KeySelectorTest {
+
+  private final FormDataKeyProviderImpl keyProvider = new FormDataKeyProviderImpl();
+
+  @Test
+  void shouldSelectEverythingByDefault() {
+    var selector = KeySelector.of(ArgsDto.builder().keyTypes(List.of("")).build());
+
+    assertThat(selector.isSelective()).isFalse();
+    assertThat(selector.getListingPrefixes()).containsExactly("");
+    assertThat(selector.test("lowcode/form-data")).isTrue();
+  }
+
+  @Test
+  void shouldSelectKeysOfTypesAndProcessDefinitions() {
+    var selector = KeySelector.of(ArgsDto.builder()
+        .keyTypes(List.of("start-form", "task"))
+        .processDefinitions(List.of("order"))
+        .build());
+
+    assertThat(selector.getListingPrefixes())
+        .containsExactly(KeyType.START_FORM.getPrefix("order"));
+    assertThat(selector.test(keyProvider.generateStartFormKey("order", "uuid"))).isTrue();
+    assertThat(selector.test(keyProvider.generateStartFormKey("refund", "uuid"))).isFalse();
+    assertThat(selector.test(keyProvider.generateKeyForExternalSystem("order", "uuid")))
+        .isFalse();
+    assertThat(selector.test(keyProvider.generateKey("piid", "taskid"))).isFalse();
+  }
+
+  @Test
+  void shouldNarrowListingByIncludeAndExcludePrefixes() {
+    var taskPrefix = KeyType.TASK.getPrefix();
+    var selector = KeySelector.of(ArgsDto.builder()
+        .keyTypes(List.of("task"))
+        .includePrefixes(List.of(taskPrefix + "piid1", taskPrefix + "piid2"))
+        .excludePrefixes(List.of(taskPrefix + "piid2"))
+        .build());
+
+    assertThat(selector.getListingPrefixes()).containsExactly(taskPrefix + "piid1");
+    assertThat(selector.test(keyProvider.generateKey("taskid", "piid1"))).isTrue();
+    assertThat(selector.test(keyProvider.generateKey("taskid", "piid2"))).isFalse();
+    assertThat(selector.test(keyProvider.generateSystemSignatureKey("piid1", "uuid"))).isFalse();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
+import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class KeyShardFilterTest {
+
+  private final FormDataKeyProvider keyProvider = new FormDataKeyProviderImpl();
+
+  @Test
+  void shouldAssignEveryKeyToExactlyOneShard() {
+    var keys = IntStream.range(0, 10000)
+        .mapToObj(i -> keyProvider.generateKey("Activity_" + i, UUID.randomUUID().toString()))
+        .collect(Collectors.toList());
+    var shards = IntStream.range(0, 4)
+        .mapToObj(index -> new KeyShardFilter(index, 4))
+        .collect(Collectors.toList());
+
+    keys.forEach(key -> assertThat(shards.stream().filter(shard -> shard.test(key)).count())
+        .as(key)
+        .isEqualTo(1));
+    shards.forEach(shard -> assertThat(keys.stream().filter(shard).count())
+        .isBetween(2000L, 3000L));
+  }
+
+  @Test
+  void shouldAcceptAllKeysWithSingleShard() {
+    var shard = new KeyShardFilter(0, 1);
+
+    assertThat(shard.isSharded()).isFalse();
+    assertThat(List.of("key1", "key2", "")).allMatch(shard);
+  }
+
+  @Test
+  void shouldRejectInvalidShard() {
+    assertThrows(IllegalArgumentException.class, () -> new KeyShardFilter(2, 2));
+    assertThrows(IllegalArgumentException.class, () -> new KeyShardFilter(-1, 2));
+    assertThrows(IllegalArgumentException.class, () -> new KeyShardFilter(0, 0));
+  }
+}
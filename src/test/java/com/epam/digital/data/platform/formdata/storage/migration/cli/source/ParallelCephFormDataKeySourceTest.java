@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelCephFormDataKeySourceTest {
+
+  private static final List<String> KEYS = Stream.of(
+          IntStream.range(0, 50).mapToObj(i -> "process/" + Integer.toHexString(i * 4000)
+              + "/task/Activity_" + i),
+          IntStream.range(0, 10).mapToObj(i -> "process-definition/def" + i
+              + "/start-form/" + i),
+          Stream.of("invalidKey", "zzz/key"))
+      .flatMap(keys -> keys)
+      .sorted()
+      .collect(Collectors.toList());
+
+  @Mock
+  private AmazonS3 amazonS3;
+
+  @Test
+  void shouldListEveryKeyOnceWithConcurrentCursors() {
+    when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class)))
+        .thenAnswer(invocation -> list(invocation.getArgument(0), 5));
+    var keySource = new ParallelCephFormDataKeySource(amazonS3, "bucket",
+        ValidationConfig.KEY_PREFIXES, 4);
+    var keys = Collections.synchronizedList(new ArrayList<String>());
+
+    keySource.forEachPage(3, page -> {
+      assertThat(page).hasSizeLessThanOrEqualTo(3);
+      page.stream().map(SourceObjectDto::getKey).forEach(keys::add);
+    });
+
+    assertThat(keys).hasSize(KEYS.size()).containsExactlyInAnyOrderElementsOf(KEYS);
+  }
+
+  @Test
+  void shouldSplitPrefixesAtDiscoveredSubPrefixesOrHexDigits() {
+    when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class)))
+        .thenAnswer(invocation -> list(invocation.getArgument(0), 20));
+    var keySource = new ParallelCephFormDataKeySource(amazonS3, "bucket",
+        List.of("process/", "process-definition/"), 2);
+
+    var bounds = keySource.findBounds("");
+
+    assertThat(bounds).contains("process/", "process/0", "process/f", "process-definition/",
+        "process-definition/def0/", "process-definition/def9/").isSorted();
+    assertThat(bounds).noneMatch(bound -> bound.startsWith("process-definition/def0/start"));
+  }
+
+  @Test
+  void shouldRethrowListingFailure() {
+    when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request request = invocation.getArgument(0);
+      if ("process/".equals(request.getStartAfter())) {
+        throw new AmazonS3Exception("Listing failed");
+      }
+      return list(request, 5);
+    });
+    var keySource = new ParallelCephFormDataKeySource(amazonS3, "bucket",
+        List.of("process/"), 2);
+
+    assertThatThrownBy(() -> keySource.forEachPage(3, page -> {
+    })).isInstanceOf(AmazonS3Exception.class);
+  }
+
+  /**
+   * Emulates ListObjectsV2 over {@link #KEYS}, continuation tokens are the last listed key.
+   */
+  private ListObjectsV2Result list(ListObjectsV2Request request, int discoveryMaxKeys) {
+    var prefix = request.getPrefix() == null ? "" : request.getPrefix();
+    var after = request.getContinuationToken() != null ? request.getContinuationToken()
+        : request.getStartAfter();
+    var result = new ListObjectsV2Result();
+    var matching = KEYS.stream()
+        .filter(key -> key.startsWith(prefix) && (after == null || key.compareTo(after) > 0))
+        .collect(Collectors.toList());
+    if (request.getDelimiter() != null) {
+      var commonPrefixes = new TreeSet<String>();
+      matching.forEach(key -> {
+        var end = key.indexOf(request.getDelimiter(), prefix.length());
+        if (end >= 0) {
+          commonPrefixes.add(key.substring(0, end + 1));
+        }
+      });
+      result.setTruncated(commonPrefixes.size() > discoveryMaxKeys);
+      result.setCommonPrefixes(commonPrefixes.stream().limit(discoveryMaxKeys)
+          .collect(Collectors.toList()));
+      return result;
+    }
+    var page = matching.stream().limit(request.getMaxKeys()).collect(Collectors.toList());
+    result.setTruncated(matching.size() > page.size());
+    result.setNextContinuationToken(page.isEmpty() ? null : page.get(page.size() - 1));
+    page.forEach(key -> {
+      var summary = new S3ObjectSummary();
+      summary.setKey(key);
+      result.getObjectSummaries().add(summary);
+    });
+    return result;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.SourceObjectDto;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+@ExtendWith(MockitoExtension.class)
+class RedisFormDataKeySourceTest {
+
+  @Mock
+  private RedisConnectionFactory connectionFactory;
+  @Mock
+  private RedisConnection connection;
+  @Mock
+  private RedisSetCommands setCommands;
+  @Mock
+  private Cursor<byte[]> cursor;
+
+  @Test
+  void shouldScanKeyspaceInPages() {
+    var keySource = new RedisFormDataKeySource(connectionFactory, "keyspace", 0, null);
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.setCommands()).thenReturn(setCommands);
+    when(setCommands.sScan(eq(bytes("keyspace")), any())).thenReturn(cursor);
+    when(cursor.hasNext()).thenReturn(true, true, true, true, false);
+    when(cursor.next()).thenReturn(bytes("key1"), bytes("key1"), bytes("key2"), bytes("key3"));
+    var pages = new ArrayList<List<String>>();
+
+    keySource.forEachPage(2, page -> pages.add(page.stream()
+        .map(SourceObjectDto::getKey)
+        .collect(Collectors.toList())));
+
+    assertThat(pages).containsExactly(List.of("key1", "key2"), List.of("key3"));
+    var options = ArgumentCaptor.forClass(ScanOptions.class);
+    verify(setCommands).sScan(eq(bytes("keyspace")), options.capture());
+    assertThat(options.getValue().getCount()).isEqualTo(2);
+    assertThat(options.getValue().getPattern()).isEqualTo("*");
+    verify(cursor).close();
+    verify(connection).close();
+  }
+
+  @Test
+  void shouldScanWithMatchPatternAndCount() {
+    var keySource = new RedisFormDataKeySource(connectionFactory, "keyspace", 500, "process*");
+    when(connectionFactory.getConnection()).thenReturn(connection);
+    when(connection.setCommands()).thenReturn(setCommands);
+    when(setCommands.sScan(eq(bytes("keyspace")), any())).thenReturn(cursor);
+    when(cursor.hasNext()).thenReturn(false);
+
+    keySource.forEachPage(2, page -> {
+      throw new AssertionError("No keys expected");
+    });
+
+    var options = ArgumentCaptor.forClass(ScanOptions.class);
+    verify(setCommands).sScan(eq(bytes("keyspace")), options.capture());
+    assertThat(options.getValue().getCount()).isEqualTo(500);
+    assertThat(options.getValue().getPattern()).isEqualTo("process*");
+  }
+
+  @Test
+  void shouldBuildMatchPatternFromKeyFormats() {
+    assertThat(RedisFormDataKeySource.matchPattern(ValidationConfig.KEY_FORMATS))
+        .isEqualTo("process*");
+    assertThat(RedisFormDataKeySource.matchPattern(List.of("form[1]/%s", "form[1]/x/%s")))
+        .isEqualTo("form\\[1\\]/*");
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
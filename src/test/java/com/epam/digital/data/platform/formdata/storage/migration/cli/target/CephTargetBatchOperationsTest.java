@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.target;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics.Operation;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CephTargetBatchOperationsTest {
+
+  @Mock
+  private FormDataStorageService cephStorage;
+  @Mock
+  private AmazonS3 amazonS3;
+
+  private final MigrationMetrics metrics = new MigrationMetrics(
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+  private CephTargetBatchOperations batchOperations;
+
+  @BeforeEach
+  void init() {
+    var args = ArgsDto.builder().redisBatchSize(2).build();
+    batchOperations = new CephTargetBatchOperations(cephStorage, amazonS3, "bucket",
+        new StorageThrottle(args, metrics), args);
+  }
+
+  @AfterEach
+  void destroy() {
+    batchOperations.preDestroy();
+  }
+
+  @Test
+  void shouldCheckExistenceWithoutReadingFormData() {
+    when(amazonS3.doesObjectExist("bucket", "key1")).thenReturn(true);
+    when(amazonS3.doesObjectExist("bucket", "key2")).thenReturn(false);
+
+    var existing = batchOperations.findExisting(List.of("key1", "key2"));
+
+    assertThat(existing).containsExactly("key1");
+    assertThat(metrics.getTimer(Operation.CEPH_EXISTS).count()).isEqualTo(2);
+    verifyNoInteractions(cephStorage);
+  }
+
+  @Test
+  void shouldPutAllWithStorageService() {
+    var formData = FormDataDto.builder()
+        .data(new LinkedHashMap<>(Map.of("name", "John")))
+        .build();
+
+    var failures = batchOperations.putAll(Map.of("key1", formData, "key2", formData));
+
+    assertThat(failures).isEmpty();
+    verify(cephStorage).putFormData("key1", formData);
+    verify(cephStorage).putFormData("key2", formData);
+    assertThat(metrics.getTimer(Operation.CEPH_PUT).count()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.throttle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+  private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  void shouldHalveLimitWhenLatencyExceedsTarget() {
+    var limit = new AdaptiveConcurrencyLimit(8, TARGET_NANOS, 0.01, 0);
+
+    limit.acquire();
+    limit.release(TARGET_NANOS * 2, false);
+    assertThat(limit.getLimit()).isEqualTo(4);
+
+    limit.acquire();
+    limit.release(TARGET_NANOS * 2, false);
+    assertThat(limit.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldHalveLimitOnErrors() {
+    var limit = new AdaptiveConcurrencyLimit(8, TARGET_NANOS, 0.01, 0);
+
+    limit.acquire();
+    limit.release(0, true);
+
+    assertThat(limit.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldGrowLimitAdditivelyUpToMaximum() {
+    var limit = new AdaptiveConcurrencyLimit(3, TARGET_NANOS, 0.01, 0);
+    limit.acquire();
+    limit.release(TARGET_NANOS * 2, false);
+    assertThat(limit.getLimit()).isEqualTo(1);
+
+    for (int i = 0; i < 5; i++) {
+      limit.acquire();
+      limit.release(0, false);
+    }
+
+    assertThat(limit.getLimit()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldNotDropLimitBelowOne() {
+    var limit = new AdaptiveConcurrencyLimit(1, TARGET_NANOS, 0.01, 0);
+
+    limit.acquire();
+    limit.release(0, true);
+
+    assertThat(limit.getLimit()).isEqualTo(1);
+  }
+}
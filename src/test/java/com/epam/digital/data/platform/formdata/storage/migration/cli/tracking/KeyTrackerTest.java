@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.tracking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class KeyTrackerTest {
+
+  @Test
+  void shouldTrackSortedDistinctKeys() {
+    var tracker = new KeyTracker(Stream.of("process/b", "process/a", "process/b", "process/c"));
+
+    assertThat(tracker.size()).isEqualTo(3);
+    assertThat(tracker.stream()).containsExactly("process/a", "process/b", "process/c");
+  }
+
+  @Test
+  void shouldMarkOnlyTrackedKeys() {
+    var tracker = new KeyTracker(Stream.of("process/a", "process/b", "process/c"));
+
+    tracker.mark("process/b");
+    tracker.mark("process/unknown");
+
+    assertThat(tracker.isMarked("process/b")).isTrue();
+    assertThat(tracker.isMarked("process/a")).isFalse();
+    assertThat(tracker.isMarked("process/unknown")).isFalse();
+    assertThat(tracker.marked()).containsExactly("process/b");
+    assertThat(tracker.unmarked()).containsExactly("process/a", "process/c");
+  }
+
+  @Test
+  void shouldMarkKeysConcurrently() {
+    var tracker = new KeyTracker(IntStream.range(0, 10_000).mapToObj(i -> "key/" + i));
+
+    IntStream.range(0, 10_000).parallel()
+        .filter(i -> i % 3 != 0)
+        .forEach(i -> tracker.mark("key/" + i));
+
+    assertThat(tracker.unmarked()).hasSize(3334).allMatch(
+        key -> Integer.parseInt(key.substring("key/".length())) % 3 == 0);
+    assertThat(tracker.marked()).hasSize(6666);
+  }
+}
@@ -5,8 +5,10 @@ import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import com.epam.digital.data.platform.formdata.storage.migration.cli.config.ValidationConfig;
 import com.epam.digital.data.platform.storage.form.service.FormDataKeyProvider;
 import com.epam.digital.data.platform.storage.form.service.FormDataKeyProviderImpl;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -36,4 +38,30 @@ class FormDataKeyValidatorTest {
   void failedValidation() {
     assertThat(validator.isValid("invalid")).isFalse();
   }
+
+  @Test
+  void shouldMatchSameKeysAsRegexPatterns() {
+    var patterns = new ArrayList<>(ValidationConfig.PATTERNS);
+    patterns.add(Pattern.compile("custom/[a-z]+/\\d+"));
+    patterns.add(Pattern.compile("first|second/.*"));
+    patterns.add(Pattern.compile("opt?ional"));
+    var fastValidator = new FormDataKeyValidator(patterns);
+    var uuid = UUID.randomUUID().toString();
+    var keys = List.of(
+        keyProvider.generateKey("taskDefKey", uuid),
+        keyProvider.generateStartFormKey("processDefKey", uuid),
+        keyProvider.generateSystemSignatureKey(uuid, uuid),
+        keyProvider.generateBatchSystemSignatureKey(uuid, 0),
+        keyProvider.generateKey("", ""),
+        keyProvider.generateKey("task\nDefKey", uuid),
+        keyProvider.generateKey("taskDefKey", uuid).substring(1),
+        keyProvider.generateKey("taskDefKey", uuid) + "/",
+        "process/", "process//task/", "process/task/", "process-definition/",
+        "custom/abc/123", "custom/abc/x", "first", "second/key", "third",
+        "optional", "opional", "opttional", "", "invalid");
+
+    keys.forEach(key -> assertThat(fastValidator.isValid(key))
+        .as(key)
+        .isEqualTo(patterns.stream().anyMatch(pattern -> pattern.matcher(key).matches())));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.formdata.storage.migration.cli.verify;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.epam.digital.data.platform.formdata.storage.migration.cli.dto.ArgsDto;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.metrics.MigrationMetrics;
+import com.epam.digital.data.platform.formdata.storage.migration.cli.throttle.StorageThrottle;
+import com.epam.digital.data.platform.storage.form.dto.FormDataDto;
+import com.epam.digital.data.platform.storage.form.service.FormDataStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MigrationVerifierTest {
+
+  @Mock
+  private FormDataStorageService redisStorage;
+
+  private MigrationVerifier verifier;
+
+  @BeforeEach
+  void init() {
+    var args = ArgsDto.builder().redisBatchSize(2).build();
+    verifier = new MigrationVerifier(new ObjectMapper(), redisStorage, new StorageThrottle(args,
+        new MigrationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))), args);
+  }
+
+  @AfterEach
+  void destroy() {
+    verifier.preDestroy();
+  }
+
+  @Test
+  void shouldIgnoreMapOrderAndNumericTypes() {
+    var source = formData(Map.of("name", "John", "age", 42, "tags", List.of("a", "b")));
+    var target = formData(Map.of("tags", List.of("a", "b"), "age", 42L, "name", "John"));
+
+    assertThat(verifier.checksum(source)).isEqualTo(verifier.checksum(target));
+  }
+
+  @Test
+  void shouldCompareNumbersByValue() {
+    var source = formData(Map.of("amount", 1, "rate", new BigDecimal("1.50"),
+        "items", List.of(Map.of("count", 2, "id", "a"))));
+    var target = formData(Map.of("amount", 1.0, "rate", 1.5,
+        "items", List.of(Map.of("id", "a", "count", 2L))));
+
+    assertThat(verifier.checksum(source)).isEqualTo(verifier.checksum(target));
+    assertThat(verifier.checksum(formData(Map.of("amount", 1))))
+        .isNotEqualTo(verifier.checksum(formData(Map.of("amount", 1.5))));
+    assertThat(verifier.checksum(formData(Map.of("amount", 1))))
+        .isNotEqualTo(verifier.checksum(formData(Map.of("amount", "1"))));
+  }
+
+  @Test
+  void shouldDetectChangedContent() {
+    assertThat(verifier.checksum(formData(Map.of("name", "John"))))
+        .isNotEqualTo(verifier.checksum(formData(Map.of("name", "Bob"))));
+    assertThat(verifier.checksum(formData(Map.of("tags", List.of("a", "b")))))
+        .isNotEqualTo(verifier.checksum(formData(Map.of("tags", List.of("b", "a")))));
+  }
+
+  @Test
+  void shouldVerifyBatch() {
+    var source = formData(Map.of("name", "John"));
+    when(redisStorage.getFormData("key1")).thenReturn(Optional.of(source));
+    when(redisStorage.getFormData("key2")).thenReturn(Optional.of(formData(Map.of("name", "Bob"))));
+    when(redisStorage.getFormData("key3")).thenReturn(Optional.empty());
+    when(redisStorage.getFormData("key4")).thenThrow(new IllegalStateException("error"));
+
+    var mismatched = verifier.verifyAll(
+        Map.of("key1", source, "key2", source, "key3", source, "key4", source));
+
+    assertThat(mismatched).containsExactlyInAnyOrder("key2", "key3", "key4");
+  }
+
+  private static FormDataDto formData(Map<String, Object> data) {
+    return FormDataDto.builder().data(new LinkedHashMap<>(data)).signature("sign").build();
+  }
+}